@@ -0,0 +1,16 @@
+package study.querydsl.rowmapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 생성자에 붙이면 컴파일 시점에 {@code <클래스명>RowMapper} 를 생성한다.
+ * 생성된 RowMapper 는 ResultSet 의 컬럼을 생성자 파라미터 순서대로 읽어서 리플렉션이나 중간 배열 없이 바로 생성자를 호출한다.
+ * {@code @QueryProjection} 과 같은 방식으로 사용한다.
+ */
+@Target(ElementType.CONSTRUCTOR)
+@Retention(RetentionPolicy.SOURCE)
+public @interface JdbcProjection {
+}
@@ -0,0 +1,124 @@
+package study.querydsl.rowmapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link JdbcProjection} 이 붙은 생성자마다 Spring JDBC RowMapper 구현체를 생성한다.
+ */
+@SupportedAnnotationTypes("study.querydsl.rowmapper.JdbcProjection")
+public class JdbcProjectionProcessor extends AbstractProcessor {
+
+    private static final Map<TypeKind, String> PRIMITIVE_GETTERS = Map.of(
+            TypeKind.BOOLEAN, "getBoolean",
+            TypeKind.BYTE, "getByte",
+            TypeKind.SHORT, "getShort",
+            TypeKind.INT, "getInt",
+            TypeKind.LONG, "getLong",
+            TypeKind.FLOAT, "getFloat",
+            TypeKind.DOUBLE, "getDouble");
+
+    private static final Map<String, TypeKind> WRAPPERS = Map.of(
+            "java.lang.Boolean", TypeKind.BOOLEAN,
+            "java.lang.Byte", TypeKind.BYTE,
+            "java.lang.Short", TypeKind.SHORT,
+            "java.lang.Integer", TypeKind.INT,
+            "java.lang.Long", TypeKind.LONG,
+            "java.lang.Float", TypeKind.FLOAT,
+            "java.lang.Double", TypeKind.DOUBLE);
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(JdbcProjection.class)) {
+            ExecutableElement constructor = (ExecutableElement) element;
+            TypeElement type = (TypeElement) constructor.getEnclosingElement();
+            try {
+                write(type, constructor.getParameters());
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "RowMapper 생성 실패: " + e.getMessage(), element);
+            }
+        }
+        return true;
+    }
+
+    private void write(TypeElement type, List<? extends VariableElement> parameters) throws IOException {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.getQualifiedName().toString();
+        String typeName = type.getSimpleName().toString();
+        String mapperName = typeName + "RowMapper";
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(mapperName)
+                .append(" implements org.springframework.jdbc.core.RowMapper<").append(typeName).append("> {\n\n")
+                .append("    public static final ").append(mapperName).append(" INSTANCE = new ").append(mapperName).append("();\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(typeName)
+                .append(" mapRow(java.sql.ResultSet rs, int rowNum) throws java.sql.SQLException {\n");
+
+        StringBuilder arguments = new StringBuilder();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            String name = parameter.getSimpleName().toString();
+            appendRead(source, parameter.asType(), name, i + 1);
+            if (i > 0) {
+                arguments.append(", ");
+            }
+            arguments.append(name);
+        }
+
+        source.append("        return new ").append(typeName).append("(").append(arguments).append(");\n")
+                .append("    }\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private void appendRead(StringBuilder source, TypeMirror type, String name, int column) {
+        String typeName = type.toString();
+        if (type.getKind().isPrimitive()) {
+            source.append("        ").append(typeName).append(' ').append(name)
+                    .append(" = rs.").append(PRIMITIVE_GETTERS.get(type.getKind())).append('(').append(column).append(");\n");
+        } else if (WRAPPERS.containsKey(typeName)) {
+            TypeKind primitive = WRAPPERS.get(typeName);
+            String raw = name + "Value";
+            source.append("        ").append(primitive.name().toLowerCase()).append(' ').append(raw)
+                    .append(" = rs.").append(PRIMITIVE_GETTERS.get(primitive)).append('(').append(column).append(");\n")
+                    .append("        ").append(typeName).append(' ').append(name)
+                    .append(" = rs.wasNull() ? null : ").append(raw).append(";\n");
+        } else if ("java.lang.String".equals(typeName)) {
+            source.append("        String ").append(name)
+                    .append(" = rs.getString(").append(column).append(");\n");
+        } else {
+            source.append("        ").append(typeName).append(' ').append(name)
+                    .append(" = rs.getObject(").append(column).append(", ").append(typeName).append(".class);\n");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberBulkWriter;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 벤치마크 공통 상태
+ * 임베디드 H2 위에 애플리케이션 컨텍스트를 띄우고 memberCount 만큼 회원을 적재한다.
+ * SQL 로그는 측정값을 왜곡하므로 모두 끈다.
+ * 2차 캐시와 Hibernate 통계는 기본값(꺼짐)이며, 캐시를 측정할 때만 --member.cache.enabled=true 로 함께 켠다.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    public static final int TEAM_COUNT = 10;
+
+    @Param({"10000"})
+    public int memberCount;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = start();
+        loadMembers();
+    }
+
+    /**
+     * 웹 서버가 필요한 벤치마크는 재정의한다. (WebBenchmarkContext)
+     */
+    protected ConfigurableApplicationContext start() {
+        return startApplication();
+    }
+
+    static ConfigurableApplicationContext startApplication() {
+        return startApplication(WebApplicationType.NONE);
+    }
+
+    static ConfigurableApplicationContext startApplication(WebApplicationType webApplicationType, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of("--spring.profiles.active=benchmark",
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--decorator.datasource.p6spy.enable-logging=false",
+                "--logging.level.org.hibernate.sql=warn",
+                "--logging.level.org.hibernate.type=warn"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * teamName + 나이 범위 조건. 전체 회원의 약 1% 가 조회된다.
+     */
+    public MemberSearchCondition searchCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(39);
+        return condition;
+    }
+
+    private void loadMembers() {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Team> teams = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < TEAM_COUNT; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+        });
+
+        context.getBean(MemberBulkWriter.class).insertAll(members(memberCount, teams));
+    }
+
+    static Iterable<Member> members(int count, List<Team> teams) {
+        return () -> IntStream.range(0, count)
+                .mapToObj(i -> new Member("member" + i, i % 100, teams.get(i % teams.size())))
+                .iterator();
+    }
+}
@@ -0,0 +1,55 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJPARepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * username 하나씩 반복 조회하는 방식과 padding 된 IN 절 chunk 조회 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FindByUsernamesBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int keyCount;
+
+    private MemberJPARepository memberJPARepository;
+    private List<String> usernames;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        memberJPARepository = context.getBean(MemberJPARepository.class);
+        usernames = new ArrayList<>(keyCount);
+        int step = Math.max(1, context.memberCount / keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            usernames.add("member" + (i * step % context.memberCount));
+        }
+    }
+
+    @Benchmark
+    public List<Member> perKeyLoop() {
+        List<Member> result = new ArrayList<>();
+        for (String username : usernames) {
+            result.addAll(memberJPARepository.findByUsername_QueryDSL(username));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Member> paddedInList() {
+        return memberJPARepository.findByUsernames(usernames);
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.benchmark;
+
+import study.querydsl.entity.Team;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+/**
+ * 시퀀스로 바꾸기 전의 Member 매핑(IDENTITY id). MemberBulkInsertBenchmark 의 기준값 측정용이다.
+ * insert 마다 DB 가 id 를 만들어야 하므로 Hibernate 는 JDBC batch insert 를 하지 않는다.
+ * 벤치마크 클래스패스에만 있으므로 애플리케이션과 테스트의 스키마에는 생기지 않는다.
+ */
+@Entity
+@Table(name = "identity_member")
+public class IdentityMember {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String username;
+    private int age;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "team_id")
+    private Team team;
+
+    protected IdentityMember() {
+    }
+
+    public IdentityMember(String username, int age, Team team) {
+        this.username = username;
+        this.age = age;
+        this.team = team;
+    }
+}
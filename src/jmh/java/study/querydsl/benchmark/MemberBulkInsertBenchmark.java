@@ -0,0 +1,110 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.BulkInsertResult;
+import study.querydsl.repository.MemberBulkWriter;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 대량 적재 비교 (결과는 회원 1건당 시간)
+ * - identityLoop: IDENTITY id 매핑(IdentityMember)으로 한 건씩 persist. insert 마다 DB 왕복이 한 번씩 일어나는 기준값
+ * - bulkWriter: MemberBulkWriter (pooled SEQUENCE id + JDBC batch insert + chunk 단위 flush/detach)
+ * - persistLoop: 기존 InitMember 처럼 현재 Member 매핑으로 한 트랜잭션에서 flush/detach 없이 persist
+ * identityLoop 도 chunk 마다 flush/clear 하므로 bulkWriter 와의 차이는 insert 방식(batch 여부)의 차이다.
+ * persistLoop 는 영속성 컨텍스트가 계속 커지므로 1M 건이면 insert 비용이 아니라 GC/OOM 을 재게 된다. 그래서 PERSIST_LOOP_ROWS 건만 저장한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class MemberBulkInsertBenchmark {
+
+    static final int ROWS = 1_000_000;
+    static final int PERSIST_LOOP_ROWS = 100_000;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transactionTemplate;
+    private MemberBulkWriter memberBulkWriter;
+    private List<Team> teams;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startApplication();
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        memberBulkWriter = context.getBean(MemberBulkWriter.class);
+
+        teams = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < BenchmarkContext.TEAM_COUNT; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+        });
+    }
+
+    @Setup(Level.Iteration)
+    public void deleteMembers() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m").executeUpdate();
+            em.createQuery("delete from IdentityMember m").executeUpdate();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void identityLoop() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                em.persist(new IdentityMember("member" + i, i % 100, teams.get(i % teams.size())));
+                if ((i + 1) % MemberBulkWriter.DEFAULT_CHUNK_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BulkInsertResult bulkWriter() {
+        return memberBulkWriter.insertAll(BenchmarkContext.members(ROWS, teams));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PERSIST_LOOP_ROWS)
+    public void persistLoop() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Member member : BenchmarkContext.members(PERSIST_LOOP_ROWS, teams)) {
+                em.persist(member);
+            }
+        });
+    }
+}
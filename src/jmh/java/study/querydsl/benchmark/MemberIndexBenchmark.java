@@ -0,0 +1,73 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.metrics.MemberIndexAdvisor;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberIndexAdvisor 추천 인덱스 적용 전/후 검색 비교
+ * indexed=true 이면 대표 조건 조합으로 추천을 받아 DDL 을 실행한 뒤 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberIndexBenchmark {
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private MemberRepository memberRepository;
+    private MemberSearchCondition usernameCondition;
+    private MemberSearchCondition teamAgeCondition;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        memberRepository = context.getBean(MemberRepository.class);
+
+        usernameCondition = new MemberSearchCondition();
+        usernameCondition.setUsername("member" + context.memberCount / 2);
+        usernameCondition.setAgeGoe(0);
+
+        teamAgeCondition = context.searchCondition();
+
+        if (indexed) {
+            MemberIndexAdvisor indexAdvisor = context.getBean(MemberIndexAdvisor.class);
+            memberRepository.search(usernameCondition);
+            memberRepository.search(teamAgeCondition);
+            createIndexes(context, indexAdvisor.advise());
+        }
+    }
+
+    private static void createIndexes(BenchmarkContext context, List<MemberIndexAdvisor.IndexAdvice> advice) {
+        EntityManager em = context.getBean(EntityManager.class);
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> advice.stream()
+                .flatMap(shape -> shape.getRecommendations().stream())
+                .map(MemberIndexAdvisor.IndexRecommendation::getDdl)
+                .distinct()
+                .forEach(ddl -> em.createNativeQuery(ddl).executeUpdate()));
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> usernameAndAge() {
+        return memberRepository.search(usernameCondition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> teamNameAndAgeRange() {
+        return memberRepository.search(teamAgeCondition);
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.repository.MemberJPARepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberJPARepository 동적 쿼리 방식과 MemberRepositoryImpl 페이징 방식 비교
+ * search 는 매번 Querydsl 표현식을 만들고, searchByBuilder 는 쿼리 템플릿 캐시(MemberSearchQueryCache)로 조회한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberRepositoryBenchmark {
+
+    private MemberJPARepository memberJPARepository;
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        memberJPARepository = context.getBean(MemberJPARepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        condition = context.searchCondition();
+        pageable = PageRequest.of(1, 20);
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> search() {
+        return memberJPARepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> searchByBuilder() {
+        return memberJPARepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchPageSimple() {
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchPageComplex() {
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchPageComplex2() {
+        return memberRepository.searchPageComplex2(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> searchPageCountQuery() {
+        return memberRepository.searchPageCountQuery(condition, pageable);
+    }
+}
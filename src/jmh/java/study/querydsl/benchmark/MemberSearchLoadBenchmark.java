@@ -0,0 +1,105 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시 클라이언트 1000 개가 같은 검색을 요청할 때 blocking(/v1/members) 과 boundedElastic(/v5/members) 비교
+ * 한 번의 측정은 1000 개 요청을 동시에 보내고 모두 끝날 때까지의 시간이다. (처리량 = 1000 / 측정값)
+ * 서버 스레드 사용량은 측정이 끝난 뒤의 톰캣 worker / boundedElastic 스레드 수로 함께 기록한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberSearchLoadBenchmark {
+
+    private static final int CLIENTS = 1000;
+
+    @Param({"/v1/members", "/v5/members"})
+    public String endpoint;
+
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp(WebBenchmarkContext context) {
+        // 클라이언트 스레드가 서버 스레드 수에 섞이지 않도록 작은 고정 풀을 사용
+        clientExecutor = Executors.newFixedThreadPool(8, runnable -> new Thread(runnable, "load-client"));
+        client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        request = HttpRequest.newBuilder(URI.create(
+                        context.baseUrl() + endpoint + "?teamName=team1&ageGoe=30&ageLoe=39"))
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int concurrentClients(ServerThreads threads) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        threads.sample();
+        return ok;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ServerThreads {
+
+        public long tomcatThreads;
+        public long boundedElasticThreads;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tomcatThreads = 0;
+            boundedElasticThreads = 0;
+        }
+
+        void sample() {
+            long tomcat = 0;
+            long elastic = 0;
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().startsWith("http-nio-")) tomcat++;
+                if (thread.getName().startsWith("boundedElastic-")) elastic++;
+            }
+            tomcatThreads = Math.max(tomcatThreads, tomcat);
+            boundedElasticThreads = Math.max(boundedElasticThreads, elastic);
+        }
+    }
+}
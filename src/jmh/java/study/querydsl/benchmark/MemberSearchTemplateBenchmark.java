@@ -0,0 +1,46 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.repository.MemberJPARepository;
+import study.querydsl.repository.MemberSearchQueryCache;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 매번 Querydsl 표현식을 만들고 직렬화하는 검색과, 미리 직렬화해 둔 템플릿에 바인딩만 하는 검색 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberSearchTemplateBenchmark {
+
+    private MemberJPARepository memberJPARepository;
+    private MemberSearchQueryCache searchQueryCache;
+    private MemberSearchCondition condition;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        memberJPARepository = context.getBean(MemberJPARepository.class);
+        searchQueryCache = context.getBean(MemberSearchQueryCache.class);
+        condition = context.searchCondition();
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> buildEveryTime() {
+        return memberJPARepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> cachedTemplate() {
+        return searchQueryCache.search(condition);
+    }
+}
@@ -0,0 +1,53 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /v3/members 응답 시간 분포(p50/p99) 비교
+ * - sequential: 기존 searchPageCountQuery (content 조회 후 count 조회)
+ * - parallel: searchPageParallel (content 와 count 동시 조회)
+ * 중간 페이지를 조회해서 count 쿼리가 생략되지 않도록 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class ParallelPageBenchmark {
+
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        memberRepository = context.getBean(MemberRepository.class);
+        condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        pageable = PageRequest.of(5, 20);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> sequential() {
+        return memberRepository.searchPageCountQuery(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDTO> parallel() {
+        return memberRepository.searchPageParallel(condition, pageable);
+    }
+}
@@ -0,0 +1,100 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberDTO;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.repository.MemberJdbcRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * QueryDSLBasicTest 에서 사용한 DTO 프로젝션 방식 비교
+ * 조회 범위는 같고 결과를 DTO 로 만드는 방법만 다르다.
+ * jdbcRowMapper 는 @JdbcProjection 으로 생성된 RowMapper 로 ResultSet 을 바로 매핑한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProjectionBenchmark {
+
+    private static final int LIMIT = 1000;
+
+    private JPAQueryFactory queryFactory;
+    private MemberJdbcRepository memberJdbcRepository;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        memberJdbcRepository = context.getBean(MemberJdbcRepository.class);
+    }
+
+    @Benchmark
+    public List<MemberDTO> jdbcRowMapper() {
+        return memberJdbcRepository.findMemberDTOs(LIMIT);
+    }
+
+    @Benchmark
+    public List<MemberDTO> bean() {
+        return queryFactory
+                .select(Projections.bean(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDTO> fields() {
+        return queryFactory
+                .select(Projections.fields(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDTO> constructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDTO> queryProjection() {
+        return queryFactory
+                .select(new QMemberDTO(member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberTeamDTO> queryProjectionMemberTeam() {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .limit(LIMIT)
+                .fetch();
+    }
+}
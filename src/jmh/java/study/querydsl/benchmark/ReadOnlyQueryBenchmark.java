@@ -0,0 +1,66 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.repository.ReadOnlyQuery.readOnly;
+
+/**
+ * 읽기-쓰기 트랜잭션 안에서 엔티티를 조회하고 flush 할 때, 일반 조회와 읽기 전용 조회(ReadOnlyQuery) 비교
+ * 힙/GC 차이는 gc 프로파일러로 확인한다. (./gradlew jmh -Pbenchmark=ReadOnlyQuery -Pprofilers=gc, gc.alloc.rate.norm)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadOnlyQueryBenchmark {
+
+    private static final int LIMIT = 5000;
+
+    private EntityManager em;
+    private JPAQueryFactory queryFactory;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        em = context.getBean(EntityManager.class);
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @Benchmark
+    public int stateful() {
+        return transactionTemplate.execute(status -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .limit(LIMIT)
+                    .fetch();
+            em.flush();
+            return members.size();
+        });
+    }
+
+    @Benchmark
+    public int readOnlyHint() {
+        return transactionTemplate.execute(status -> {
+            List<Member> members = readOnly(queryFactory
+                    .selectFrom(member)
+                    .limit(LIMIT))
+                    .fetch();
+            em.flush();
+            return members.size();
+        });
+    }
+}
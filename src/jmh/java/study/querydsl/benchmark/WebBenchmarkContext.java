@@ -0,0 +1,26 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+/**
+ * 임의 포트로 내장 톰캣까지 띄우는 벤치마크 상태
+ * 같은 조건의 반복 요청이 DB 까지 가도록 응답 캐시(MemberResponseCache)는 끈다.
+ */
+@State(Scope.Benchmark)
+public class WebBenchmarkContext extends BenchmarkContext {
+
+    @Override
+    protected ConfigurableApplicationContext start() {
+        return startApplication(WebApplicationType.SERVLET,
+                "--server.port=0",
+                "--member.response-cache.max-size=0");
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + getBean(Environment.class).getProperty("local.server.port");
+    }
+}
@@ -1,15 +1,19 @@
 package study.querydsl;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberBulkWriter;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
 
 @Profile("local")
 @Component
@@ -29,6 +33,9 @@ public class InitMember {
         @PersistenceContext
         EntityManager em;
 
+        @Autowired
+        MemberBulkWriter memberBulkWriter;
+
         @Transactional
         public void init() {
             Team teamA = new Team("teamA");
@@ -36,10 +43,12 @@ public class InitMember {
             em.persist(teamA);
             em.persist(teamB);
 
+            List<Member> members = new ArrayList<>();
             for (int i = 0; i < 100; i++) {
                 Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
+                members.add(new Member("member" + i, i, selectedTeam));
             }
+            memberBulkWriter.insertAll(members);
         }
     }
 }
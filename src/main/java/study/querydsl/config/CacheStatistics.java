@@ -0,0 +1,72 @@
+package study.querydsl.config;
+
+import lombok.Getter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 2차 캐시 region 별 적중률
+ * hibernate.generate_statistics 가 켜져 있어야 값이 집계된다. (member.cache.enabled=true 또는 test 프로파일)
+ */
+@Component
+public class CacheStatistics {
+
+    private static final List<String> REGIONS = List.of(
+            TeamCacheConfig.TEAM_REGION,
+            TeamCacheConfig.TEAM_MEMBERS_REGION);
+
+    private final SessionFactory sessionFactory;
+
+    public CacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public Map<String, RegionStatistics> regions() {
+        Map<String, RegionStatistics> result = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            result.put(region, region(region));
+        }
+        return result;
+    }
+
+    /**
+     * 2차 캐시를 끈 경우에는 region 이 없으므로 모두 0 으로 반환
+     */
+    public RegionStatistics region(String regionName) {
+        CacheRegionStatistics statistics;
+        try {
+            statistics = sessionFactory.getStatistics().getDomainDataRegionStatistics(regionName);
+        } catch (IllegalArgumentException e) {
+            statistics = null;
+        }
+        if (statistics == null) {
+            return new RegionStatistics(0, 0, 0);
+        }
+        return new RegionStatistics(statistics.getHitCount(), statistics.getMissCount(), statistics.getPutCount());
+    }
+
+    @Getter
+    public static class RegionStatistics {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long putCount;
+
+        RegionStatistics(long hitCount, long missCount, long putCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.putCount = putCount;
+        }
+
+        public double getHitRatio() {
+            long total = hitCount + missCount;
+            return total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
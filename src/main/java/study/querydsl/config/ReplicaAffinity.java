@@ -0,0 +1,74 @@
+package study.querydsl.config;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 하나의 논리적 요청에서 실행하는 읽기 쿼리가 모두 같은 데이터소스(replica 또는 primary)를 보도록 고정
+ * replica 마다 복제 위치가 다를 수 있으므로, 예를 들어 content 쿼리와 count 쿼리가 서로 다른 replica 를 보면 결과가 어긋날 수 있다.
+ * 처음 읽기 커넥션을 얻을 때 고른 대상을 이후 읽기에서도 사용한다.
+ * 작업을 다른 스레드에서 실행하는 경우(ParallelPageExecutor) wrap() 으로 같은 고정을 넘겨준다.
+ */
+public final class ReplicaAffinity {
+
+    private static final ThreadLocal<ReplicaAffinity> CURRENT = new ThreadLocal<>();
+
+    private final AtomicReference<Object> key = new AtomicReference<>();
+
+    private ReplicaAffinity() {
+    }
+
+    /**
+     * 현재 스레드에 고정이 없으면 새로 열고 action 을 실행한다. 이미 있으면 바깥 고정을 그대로 사용한다.
+     */
+    public static <T> T run(Supplier<T> action) {
+        if (CURRENT.get() != null) {
+            return action.get();
+        }
+        CURRENT.set(new ReplicaAffinity());
+        try {
+            return action.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 현재 스레드의 고정을 다른 스레드에서 실행할 작업에 넘겨준다. (TaskDecorator 로 사용)
+     */
+    public static Runnable wrap(Runnable task) {
+        ReplicaAffinity affinity = CURRENT.get();
+        if (affinity == null) {
+            return task;
+        }
+        return () -> {
+            ReplicaAffinity previous = CURRENT.get();
+            CURRENT.set(affinity);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * 고정이 없으면 매번 choose 로 고르고, 있으면 처음 고른 대상을 반환한다.
+     */
+    static Object resolve(Supplier<Object> choose) {
+        ReplicaAffinity affinity = CURRENT.get();
+        if (affinity == null) {
+            return choose.get();
+        }
+        Object pinned = affinity.key.get();
+        if (pinned != null) {
+            return pinned;
+        }
+        affinity.key.compareAndSet(null, choose.get());
+        return affinity.key.get();
+    }
+}
@@ -0,0 +1,38 @@
+package study.querydsl.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * member.datasource.* 설정
+ * <pre>
+ * member.datasource.routing.enabled: true
+ * member.datasource.primary.url: jdbc:h2:tcp://primary/querydsl
+ * member.datasource.replicas[0].url: jdbc:h2:tcp://replica1/querydsl
+ * member.datasource.max-lag: 1s
+ * </pre>
+ */
+@Data
+@ConfigurationProperties("member.datasource")
+public class ReplicaDataSourceProperties {
+
+    private Node primary = new Node();
+    private List<Node> replicas = new ArrayList<>();
+
+    /**
+     * 쓰기 트랜잭션이 커밋된 후 이 시간 동안은 읽기 전용 트랜잭션도 primary 에서 읽는다.
+     */
+    private Duration maxLag = Duration.ofSeconds(1);
+
+    @Data
+    public static class Node {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+    }
+}
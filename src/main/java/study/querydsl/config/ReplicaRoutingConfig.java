@@ -0,0 +1,55 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * primary/replica 라우팅 데이터소스
+ * member.datasource.routing.enabled=true 일 때만 등록되며, 이 경우 spring.datasource.* 대신 member.datasource.* 를 사용한다.
+ * 커넥션을 요청 끝까지 붙잡아 두면 라우팅이 요청 전체에 고정되므로 spring.jpa.open-in-view=false 로 함께 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    ReplicationLagMonitor replicationLagMonitor(ReplicaDataSourceProperties properties) {
+        return new ReplicationLagMonitor(properties.getMaxLag());
+    }
+
+    @Bean(destroyMethod = "close")
+    ReplicaRoutingDataSource replicaRoutingDataSource(ReplicaDataSourceProperties properties,
+                                                      ReplicationLagMonitor replicationLagMonitor) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(pool("replica" + i, properties.getReplicas().get(i)));
+        }
+        return new ReplicaRoutingDataSource(pool("primary", properties.getPrimary()), replicas, replicationLagMonitor);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    private static HikariDataSource pool(String name, ReplicaDataSourceProperties.Node node) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(node.getUrl());
+        dataSource.setUsername(node.getUsername());
+        dataSource.setPassword(node.getPassword());
+        dataSource.setMaximumPoolSize(node.getMaximumPoolSize());
+        return dataSource;
+    }
+}
@@ -0,0 +1,178 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 replica 로, 나머지는 primary 로 보낸다.
+ * 트랜잭션의 readOnly 여부는 커넥션을 실제로 얻는 시점에 판단하므로 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ * 최근에 쓰기가 있었거나(ReplicationLagMonitor) replica 커넥션을 얻지 못하면 primary 에서 읽는다.
+ * 쓰기 트랜잭션이라도 실제로 DML/DDL 을 실행한 경우에만 쓰기로 기록한다. (읽기만 한 트랜잭션 때문에 replica 를 건너뛰지 않도록)
+ * ReplicaAffinity 안에서는 읽기 대상을 한 번만 고른다.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private static final Set<String> WRITE_KEYWORDS = Set.of(
+            "insert", "update", "delete", "merge", "create", "alter", "drop", "truncate");
+
+    private final DataSource primary;
+    private final List<DataSource> targets = new ArrayList<>();
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final ReplicationLagMonitor lagMonitor;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicationLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        targets.add(primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica" + i;
+            targetDataSources.put(key, replicas.get(i));
+            targets.add(replicas.get(i));
+            replicaKeys.add(key);
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return ReplicaAffinity.resolve(this::readTarget);
+    }
+
+    private Object readTarget() {
+        if (replicaKeys.isEmpty() || !lagMonitor.isReplicaFresh()) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        DataSource target = (DataSource) getResolvedDataSources().get(key);
+        if (PRIMARY.equals(key)) {
+            Connection connection = target.getConnection();
+            return TransactionSynchronizationManager.isActualTransactionActive()
+                    && !TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? trackWrites(connection) : connection;
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            log.warn("{} 커넥션을 얻지 못해서 primary 에서 읽습니다: {}", key, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * SQL 을 준비하는 시점에 쓰기 여부를 판단한다.
+     * SQL 을 알 수 없는 createStatement 는 쓰기로 본다.
+     */
+    private Connection trackWrites(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(ReplicaRoutingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "prepareStatement":
+                        case "prepareCall":
+                            if (isWrite((String) args[0])) {
+                                registerWrite();
+                            }
+                            break;
+                        case "createStatement":
+                            registerWrite();
+                            break;
+                        default:
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    static boolean isWrite(String sql) {
+        String statement = sql.stripLeading();
+        while (statement.startsWith("/*")) {
+            int end = statement.indexOf("*/");
+            if (end < 0) {
+                return true;
+            }
+            statement = statement.substring(end + 2).stripLeading();
+        }
+        int end = 0;
+        while (end < statement.length() && Character.isLetter(statement.charAt(end))) {
+            end++;
+        }
+        return WRITE_KEYWORDS.contains(statement.substring(0, end).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 쓰기 트랜잭션이 커밋되면 그 시점부터 replica 지연 시간을 계산한다. 트랜잭션마다 한 번만 등록한다.
+     * 트랜잭션 밖(auto-commit)의 호출은 읽기/쓰기를 구분할 수 없으므로 기록하지 않는다.
+     */
+    private void registerWrite() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof WriteSynchronization) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new WriteSynchronization());
+    }
+
+    private class WriteSynchronization implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            lagMonitor.markWrite();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (DataSource target : targets) {
+            if (target instanceof Closeable) {
+                try {
+                    ((Closeable) target).close();
+                } catch (Exception e) {
+                    log.warn("데이터소스 종료 실패", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * replica 에서 읽어도 되는지 판단
+ * 마지막 쓰기 커밋 이후 maxLag 가 지나지 않았다면 replica 에 아직 반영되지 않았을 수 있으므로 primary 에서 읽는다.
+ * replica 의 복제 위치를 확인할 수 있다면 markReplicaCaughtUp() 으로 대기 시간을 앞당길 수 있다.
+ */
+public class ReplicationLagMonitor {
+
+    private final long maxLagNanos;
+    private final AtomicLong lastWriteNanos;
+
+    public ReplicationLagMonitor(Duration maxLag) {
+        this.maxLagNanos = maxLag.toNanos();
+        this.lastWriteNanos = new AtomicLong(System.nanoTime() - maxLagNanos);
+    }
+
+    public void markWrite() {
+        lastWriteNanos.set(System.nanoTime());
+    }
+
+    public void markReplicaCaughtUp() {
+        lastWriteNanos.set(System.nanoTime() - maxLagNanos);
+    }
+
+    public boolean isReplicaFresh() {
+        return System.nanoTime() - lastWriteNanos.get() >= maxLagNanos;
+    }
+}
@@ -0,0 +1,73 @@
+package study.querydsl.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hibernate 2차 캐시 설정
+ * member.cache.enabled=true 일 때만 2차 캐시와 쿼리 캐시를 켠다. (application.yml, 기본값 false)
+ * 엔티티별로 @Cache 를 붙인 경우에만 캐시된다. (Team, Team.members)
+ * 각 region 은 크기(엔트리 수)와 TTL 로 제한되는 힙 캐시다.
+ * CacheManager 는 JVM 기본 CacheManager 를 쓰지 않고 컨텍스트마다 고유한 URI 로 따로 만든다.
+ * (같은 JVM 의 다른 컨텍스트와 region 을 공유하지 않고, 컨텍스트를 닫을 때 남의 캐시까지 닫지 않도록)
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.cache.enabled", havingValue = "true")
+public class TeamCacheConfig {
+
+    public static final String TEAM_REGION = "team";
+    public static final String TEAM_MEMBERS_REGION = "team.members";
+
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager(@Value("${member.cache.team.max-entries:1000}") long teamMaxEntries,
+                                       @Value("${member.cache.ttl:10m}") Duration ttl) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+                .getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("urn:study.querydsl:hibernate-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(provider.getDefaultClassLoader()));
+
+        createCache(cacheManager, TEAM_REGION, teamMaxEntries, ttl);
+        createCache(cacheManager, TEAM_MEMBERS_REGION, teamMaxEntries, ttl);
+        createCache(cacheManager, QUERY_RESULTS_REGION, teamMaxEntries, ttl);
+        // 쿼리 캐시 무효화 기준이 되는 테이블 수정 시각은 만료되면 안 된다.
+        createCache(cacheManager, UPDATE_TIMESTAMPS_REGION, teamMaxEntries, null);
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createCache(CacheManager cacheManager, String name, long maxEntries, Duration ttl) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (ttl != null) {
+            configuration = configuration.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+        }
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+}
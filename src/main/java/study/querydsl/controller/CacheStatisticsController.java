@@ -0,0 +1,20 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.config.CacheStatistics;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheStatisticsController {
+
+    private final CacheStatistics cacheStatistics;
+
+    @GetMapping("/cache/statistics")
+    public Map<String, CacheStatistics.RegionStatistics> cacheStatistics() {
+        return cacheStatistics.regions();
+    }
+}
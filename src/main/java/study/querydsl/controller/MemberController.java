@@ -1,37 +1,135 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import study.querydsl.dto.MemberCursor;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.repository.CountStrategy;
 import study.querydsl.repository.MemberJPARepository;
+import study.querydsl.repository.MemberReactiveSearch;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.UsernameMatch;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final MemberJPARepository memberJPARepository;
     private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final MemberResponseCache responseCache;
+    private final MemberReactiveSearch memberReactiveSearch;
 
     @GetMapping("/v1/members")
-    public List<MemberTeamDTO> searchTeamV1(MemberSearchCondition condition) {
-        return memberJPARepository.search(condition);
+    public ResponseEntity<List<MemberTeamDTO>> searchTeamV1(MemberSearchCondition condition) {
+        return responseCache.get("v1", condition, null, () -> memberJPARepository.search(condition));
+    }
+
+    /**
+     * username 접두사/포함 검색 (예: /v1/members/search?keyword=member1&match=PREFIX&teamName=teamA)
+     */
+    @GetMapping("/v1/members/search")
+    public List<MemberTeamDTO> searchByUsernameV1(@RequestParam String keyword,
+                                                  @RequestParam(defaultValue = "PREFIX") UsernameMatch match,
+                                                  MemberSearchCondition condition) {
+        return memberRepository.searchByUsername(keyword, match, condition);
+    }
+
+    /**
+     * 검색 결과 전체를 NDJSON(한 줄에 회원 하나)으로 조회되는 대로 내려준다.
+     */
+    @GetMapping(value = "/v1/members/stream", produces = "application/x-ndjson")
+    public StreamingResponseBody streamMembersV1(MemberSearchCondition condition) {
+        return out -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<MemberTeamDTO> members = memberJPARepository.stream(condition)) {
+                    members.forEach(memberTeamDTO -> {
+                        try {
+                            out.write(objectMapper.writeValueAsBytes(memberTeamDTO));
+                            out.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            });
+            out.flush();
+        };
+    }
+
+    /**
+     * 검색 결과를 NDJSON 으로 내려주되, 쿼리는 서블릿 스레드가 아닌 boundedElastic 스레드에서 실행한다.
+     * 클라이언트가 읽는 속도에 맞춰 chunk 단위로 조회한다.
+     */
+    @GetMapping(value = "/v5/members", produces = "application/x-ndjson")
+    public Flux<MemberTeamDTO> searchMemberV5(MemberSearchCondition condition) {
+        return memberReactiveSearch.search(condition);
     }
 
     @GetMapping("/v2/members")
-    public Page<MemberTeamDTO> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+    public ResponseEntity<Page<MemberTeamDTO>> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+        return responseCache.get("v2", condition, pageable, () -> memberRepository.searchPageSimple(condition, pageable));
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDTO> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageCountQuery(condition, pageable);
+    public ResponseEntity<Slice<MemberTeamDTO>> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                                              @RequestParam(defaultValue = "EXACT") CountStrategy count,
+                                                              @RequestParam(defaultValue = "false") boolean parallel) {
+        // parallel 은 실행 방식만 다르고 결과는 같으므로 키에 포함하지 않는다
+        return responseCache.get("v3", condition, List.of(pageable, count),
+                () -> searchPageV3(condition, pageable, count, parallel));
+    }
+
+    private Slice<MemberTeamDTO> searchPageV3(MemberSearchCondition condition, Pageable pageable,
+                                             CountStrategy count, boolean parallel) {
+        if (parallel && count == CountStrategy.EXACT) {
+            return memberRepository.searchPageParallel(condition, pageable);
+        }
+        if (count == CountStrategy.EXACT) {
+            return memberRepository.searchPageCountQuery(condition, pageable);
+        }
+        return memberRepository.searchPage(condition, pageable, count);
+    }
+
+    /**
+     * size 는 1 ~ MAX_CURSOR_PAGE_SIZE 로 제한하고, 잘못된 커서는 400 으로 응답한다.
+     */
+    @GetMapping("/v4/members")
+    public MemberCursorPage searchMemberV4(MemberSearchCondition condition,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size) {
+        try {
+            MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return MemberCursorPage.of(memberRepository.searchAfter(condition, cursor, pageSize));
     }
 
 
@@ -0,0 +1,120 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchKey;
+import study.querydsl.repository.MemberDataVersion;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 회원 검색 응답 캐시
+ * 같은 검색 조건(정규화된 MemberSearchKey) + 페이지 요청이면 데이터 버전(MemberDataVersion)이 바뀌기 전까지 DB 를 조회하지 않고 캐시된 응답을 돌려준다.
+ * 응답에는 본문(JSON)의 해시로 만든 strong ETag 를 붙이므로, If-None-Match 가 일치하면 스프링 MVC 가 304 로 응답한다.
+ * 응답 수(max-size)와 캐시된 응답의 회원 row 수 합계(max-rows) 중 하나라도 넘으면 가장 오래 사용하지 않은 응답부터 제거한다.
+ * 페이징 없는 /v1 처럼 응답 하나가 max-rows 보다 크면 캐시하지 않는다.
+ */
+@Component
+public class MemberResponseCache {
+
+    private final MemberDataVersion dataVersion;
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+    private final long maxRows;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long rows;
+
+    public MemberResponseCache(MemberDataVersion dataVersion, ObjectMapper objectMapper,
+                               @Value("${member.response-cache.max-size:500}") int maxSize,
+                               @Value("${member.response-cache.max-rows:50000}") long maxRows) {
+        this.dataVersion = dataVersion;
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * @param endpoint  응답 종류 (같은 조건이라도 응답 형태가 다르면 다른 키)
+     * @param page      페이지 요청과 count 전략 등 조건 외에 응답을 바꾸는 값 (equals/hashCode 구현 필요)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> get(String endpoint, MemberSearchCondition condition, Object page, Supplier<T> loader) {
+        Key key = Key.of(endpoint, condition, page);
+        // 조회 전에 버전을 읽어야 조회 중에 커밋된 변경이 예전 버전으로 저장되어도 바로 무효화된다
+        long version = dataVersion.current();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == version) {
+                return ResponseEntity.ok().eTag(entry.etag).body((T) entry.body);
+            }
+        }
+
+        T body = loader.get();
+        String etag = etag(body);
+        Entry entry = new Entry(version, body, etag, rowCount(body));
+        if (entry.rows <= maxRows) {
+            synchronized (entries) {
+                put(key, entry);
+            }
+        }
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    public void evictAll() {
+        synchronized (entries) {
+            entries.clear();
+            rows = 0;
+        }
+    }
+
+    private void put(Key key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        rows += entry.rows - (previous == null ? 0 : previous.rows);
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > maxSize || rows > maxRows)) {
+            rows -= eldest.next().rows;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * 응답에 담긴 회원 row 수 (목록, 페이지가 아니면 1)
+     */
+    private static long rowCount(Object body) {
+        if (body instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (body instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        return 1;
+    }
+
+    private String etag(Object body) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(body)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("응답을 직렬화할 수 없습니다", e);
+        }
+    }
+
+    private record Entry(long version, Object body, String etag, long rows) {
+    }
+
+    private record Key(String endpoint, MemberSearchKey condition, Object page) {
+
+        static Key of(String endpoint, MemberSearchCondition condition, Object page) {
+            return new Key(endpoint, MemberSearchKey.of(condition), page);
+        }
+    }
+}
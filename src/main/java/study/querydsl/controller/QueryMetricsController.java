@@ -0,0 +1,28 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.metrics.MemberIndexAdvisor;
+import study.querydsl.metrics.QueryMetrics;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class QueryMetricsController {
+
+    private final QueryMetrics queryMetrics;
+    private final MemberIndexAdvisor indexAdvisor;
+
+    @GetMapping("/metrics/queries")
+    public Map<String, QueryMetrics.ShapeSnapshot> queryMetrics() {
+        return queryMetrics.snapshot();
+    }
+
+    @GetMapping("/metrics/index-advice")
+    public List<MemberIndexAdvisor.IndexAdvice> indexAdvice() {
+        return indexAdvisor.advise();
+    }
+}
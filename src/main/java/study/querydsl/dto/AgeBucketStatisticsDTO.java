@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 팀별 나이 구간 [ageFrom, ageFrom + bucketSize) 의 회원 수
+ */
+@Data
+public class AgeBucketStatisticsDTO {
+    private String teamName;
+    private int ageFrom;
+    private int bucketSize;
+    private long memberCount;
+
+    public AgeBucketStatisticsDTO(String teamName, int ageFrom, int bucketSize, long memberCount) {
+        this.teamName = teamName;
+        this.ageFrom = ageFrom;
+        this.bucketSize = bucketSize;
+        this.memberCount = memberCount;
+    }
+}
@@ -0,0 +1,47 @@
+package study.querydsl.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징에 사용하는 연속 토큰
+ * 클라이언트에는 마지막으로 조회한 member.id 를 인코딩한 불투명한 문자열만 노출한다.
+ */
+public final class MemberCursor {
+
+    private static final String PREFIX = "m:";
+
+    private MemberCursor() {
+    }
+
+    public static String encode(Long memberId) {
+        if (memberId == null) {
+            return null;
+        }
+        byte[] bytes = (PREFIX + memberId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * @return 토큰이 비어 있으면 null (첫 페이지)
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+        }
+        if (!decoded.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor);
+        }
+        try {
+            return Long.valueOf(decoded.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다: " + cursor, e);
+        }
+    }
+}
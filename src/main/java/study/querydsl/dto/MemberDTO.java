@@ -4,6 +4,7 @@ import com.querydsl.core.annotations.QueryProjection;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import study.querydsl.rowmapper.JdbcProjection;
 
 @Data
 @NoArgsConstructor
@@ -13,6 +14,7 @@ public class MemberDTO {
     private int age;
 
     @QueryProjection
+    @JdbcProjection
     public MemberDTO(String username, int age) {
         this.username = username;
         this.age = age;
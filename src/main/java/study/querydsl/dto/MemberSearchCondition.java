@@ -2,6 +2,10 @@ package study.querydsl.dto;
 
 import lombok.Data;
 
+/**
+ * 문자열 조건은 바인딩할 때 앞뒤 공백을 제거하고, 빈 문자열은 조건이 없는 것(null)으로 본다.
+ * 모든 검색 경로(JPA/JDBC/메모리/스트림)가 같은 값을 받도록 정규화는 여기 한 곳에서만 한다.
+ */
 @Data
 public class MemberSearchCondition {
 
@@ -9,4 +13,20 @@ public class MemberSearchCondition {
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+
+    public void setUsername(String username) {
+        this.username = normalize(username);
+    }
+
+    public void setTeamName(String teamName) {
+        this.teamName = normalize(teamName);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String stripped = value.strip();
+        return stripped.isEmpty() ? null : stripped;
+    }
 }
@@ -0,0 +1,47 @@
+package study.querydsl.dto;
+
+/**
+ * 정규화된 회원 검색 조건. 결과/count 캐시의 키로 사용한다.
+ * 같은 결과를 내는 조건은 같은 키가 되도록
+ * - 문자열 조건은 MemberSearchCondition 에서 이미 정규화되어 있다.
+ * - 나이 조건 중 int 범위 전체를 포함하는 경계(Integer.MIN_VALUE 이상, Integer.MAX_VALUE 이하)는 제거한다.
+ * - ageGoe > ageLoe 처럼 어떤 회원도 만족할 수 없는 조건은 모두 NONE 하나로 모은다.
+ */
+public record MemberSearchKey(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+
+    public static final MemberSearchKey ALL = new MemberSearchKey(null, null, null, null);
+    public static final MemberSearchKey NONE = new MemberSearchKey(null, null, 1, 0);
+
+    public static MemberSearchKey of(MemberSearchCondition condition) {
+        Integer ageGoe = condition.getAgeGoe();
+        Integer ageLoe = condition.getAgeLoe();
+        if (ageGoe != null && ageLoe != null && ageGoe > ageLoe) {
+            return NONE;
+        }
+        return new MemberSearchKey(condition.getUsername(),
+                condition.getTeamName(),
+                ageGoe == null || ageGoe == Integer.MIN_VALUE ? null : ageGoe,
+                ageLoe == null || ageLoe == Integer.MAX_VALUE ? null : ageLoe);
+    }
+
+    /**
+     * DB 를 조회하지 않아도 결과가 없다는 것을 알 수 있는 조건
+     */
+    public boolean matchesNothing() {
+        return this.equals(NONE);
+    }
+
+    public boolean hasPredicate() {
+        return !this.equals(ALL);
+    }
+
+    public MemberSearchCondition toCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+
+}
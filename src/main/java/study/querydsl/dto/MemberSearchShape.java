@@ -0,0 +1,56 @@
+package study.querydsl.dto;
+
+import java.util.StringJoiner;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+
+/**
+ * 회원 검색 조건 조합(shape)
+ * username, teamName, ageGoe, ageLoe 조건의 존재 여부를 비트로 나타낸 16가지 조합과 그 이름("username+ageGoe", "none")
+ * 쿼리 템플릿 캐시, QueryMetrics 지표 이름, 인덱스 추천이 같은 조합을 사용한다.
+ */
+public final class MemberSearchShape {
+
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+    public static final int SHAPES = 1 << 4;
+
+    private static final String[] NAMES = new String[SHAPES];
+
+    static {
+        for (int shape = 0; shape < SHAPES; shape++) {
+            StringJoiner name = new StringJoiner("+").setEmptyValue("none");
+            if ((shape & USERNAME) != 0) name.add("username");
+            if ((shape & TEAM_NAME) != 0) name.add("teamName");
+            if ((shape & AGE_GOE) != 0) name.add("ageGoe");
+            if ((shape & AGE_LOE) != 0) name.add("ageLoe");
+            NAMES[shape] = name.toString();
+        }
+    }
+
+    private MemberSearchShape() {
+    }
+
+    public static int of(MemberSearchCondition condition) {
+        return of(condition.getUsername(), condition.getTeamName(), condition.getAgeGoe(), condition.getAgeLoe());
+    }
+
+    public static int of(MemberSearchKey key) {
+        return of(key.username(), key.teamName(), key.ageGoe(), key.ageLoe());
+    }
+
+    public static String name(int shape) {
+        return NAMES[shape];
+    }
+
+    private static int of(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        int shape = 0;
+        if (!isEmpty(username)) shape |= USERNAME;
+        if (!isEmpty(teamName)) shape |= TEAM_NAME;
+        if (ageGoe != null) shape |= AGE_GOE;
+        if (ageLoe != null) shape |= AGE_LOE;
+        return shape;
+    }
+}
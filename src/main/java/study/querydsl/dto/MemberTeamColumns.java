@@ -0,0 +1,163 @@
+package study.querydsl.dto;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * MemberTeamDTO 목록을 컬럼 단위로 저장하는 결과 컨테이너
+ * - memberId, age 는 long[], int[] 에 박싱 없이 저장
+ * - 팀은 종류가 적으므로 사전(dictionary) 으로 인코딩해서 row 마다 int 코드 하나만 저장 (팀 없음 = -1)
+ * row 당 MemberTeamDTO 객체와 Long 박싱 객체를 만들지 않는다.
+ * 배열에 차지하는 크기는 row 당 memberId(8) + age(4) + teamCode(4) + username 참조(compressed oops 기준 4) = 20 바이트이고,
+ * 여기에 username String 객체(Latin-1 기준 대략 40 + 글자 수 바이트)가 따로 더해진다.
+ * 조회는 {@link Cursor} 하나를 재사용해서 순차로 읽는다.
+ */
+public final class MemberTeamColumns {
+
+    private static final int NO_TEAM = -1;
+
+    private final int size;
+    private final long[] memberIds;
+    private final String[] usernames;
+    private final int[] ages;
+    private final int[] teamCodes;
+    private final long[] dictionaryTeamIds;
+    private final String[] dictionaryTeamNames;
+
+    private MemberTeamColumns(Builder builder) {
+        this.size = builder.size;
+        this.memberIds = Arrays.copyOf(builder.memberIds, size);
+        this.usernames = Arrays.copyOf(builder.usernames, size);
+        this.ages = Arrays.copyOf(builder.ages, size);
+        this.teamCodes = Arrays.copyOf(builder.teamCodes, size);
+        this.dictionaryTeamIds = Arrays.copyOf(builder.dictionaryTeamIds, builder.dictionarySize);
+        this.dictionaryTeamNames = Arrays.copyOf(builder.dictionaryTeamNames, builder.dictionarySize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int teamCount() {
+        return dictionaryTeamIds.length;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * 재사용되는 flyweight row. next() 를 호출할 때마다 다음 row 를 가리킨다.
+     */
+    public final class Cursor {
+
+        private int row = -1;
+
+        public boolean next() {
+            if (row + 1 >= size) {
+                row = size;
+                return false;
+            }
+            row++;
+            return true;
+        }
+
+        public long getMemberId() {
+            return memberIds[checkedRow()];
+        }
+
+        public String getUsername() {
+            return usernames[checkedRow()];
+        }
+
+        public int getAge() {
+            return ages[checkedRow()];
+        }
+
+        public boolean hasTeam() {
+            return teamCodes[checkedRow()] != NO_TEAM;
+        }
+
+        /**
+         * @return 팀이 없으면 null
+         */
+        public Long getTeamId() {
+            int code = teamCodes[checkedRow()];
+            return code == NO_TEAM ? null : dictionaryTeamIds[code];
+        }
+
+        public String getTeamName() {
+            int code = teamCodes[checkedRow()];
+            return code == NO_TEAM ? null : dictionaryTeamNames[code];
+        }
+
+        public MemberTeamDTO toDTO() {
+            return new MemberTeamDTO(getMemberId(), getUsername(), getAge(), getTeamId(), getTeamName());
+        }
+
+        private int checkedRow() {
+            if (row < 0 || row >= size) {
+                throw new NoSuchElementException("현재 row 가 없습니다. next() 결과를 확인하세요.");
+            }
+            return row;
+        }
+    }
+
+    public static final class Builder {
+
+        private int size;
+        private long[] memberIds = new long[16];
+        private String[] usernames = new String[16];
+        private int[] ages = new int[16];
+        private int[] teamCodes = new int[16];
+
+        private int dictionarySize;
+        private long[] dictionaryTeamIds = new long[4];
+        private String[] dictionaryTeamNames = new String[4];
+        private final Map<Long, Integer> teamCodeById = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(long memberId, String username, int age, Long teamId, String teamName) {
+            if (size == memberIds.length) {
+                int capacity = size * 2;
+                memberIds = Arrays.copyOf(memberIds, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                teamCodes = Arrays.copyOf(teamCodes, capacity);
+            }
+            memberIds[size] = memberId;
+            usernames[size] = username;
+            ages[size] = age;
+            teamCodes[size] = teamId == null ? NO_TEAM : teamCode(teamId, teamName);
+            size++;
+            return this;
+        }
+
+        public MemberTeamColumns build() {
+            return new MemberTeamColumns(this);
+        }
+
+        private int teamCode(Long teamId, String teamName) {
+            Integer code = teamCodeById.get(teamId);
+            if (code != null) {
+                return code;
+            }
+            if (dictionarySize == dictionaryTeamIds.length) {
+                dictionaryTeamIds = Arrays.copyOf(dictionaryTeamIds, dictionarySize * 2);
+                dictionaryTeamNames = Arrays.copyOf(dictionaryTeamNames, dictionarySize * 2);
+            }
+            dictionaryTeamIds[dictionarySize] = teamId;
+            dictionaryTeamNames[dictionarySize] = teamName;
+            teamCodeById.put(teamId, dictionarySize);
+            return dictionarySize++;
+        }
+    }
+}
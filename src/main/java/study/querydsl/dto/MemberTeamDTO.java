@@ -2,6 +2,7 @@ package study.querydsl.dto;
 
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
+import study.querydsl.rowmapper.JdbcProjection;
 
 @Data
 public class MemberTeamDTO {
@@ -12,6 +13,7 @@ public class MemberTeamDTO {
     private String teamName;
 
     @QueryProjection
+    @JdbcProjection
     public MemberTeamDTO(Long memberId, String username, int age, Long teamId, String teamName) {
         this.memberId = memberId;
         this.username = username;
@@ -1,18 +1,29 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 
+/**
+ * 회원은 2차 캐시에 두지 않는다.
+ * 캐시된 Team.members 는 회원 id 목록만 가지고 있으므로, 회원을 최대 100명씩 in 쿼리로 모아 로딩한다.
+ */
 @Entity
+@BatchSize(size = 100)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
+    /**
+     * IDENTITY 전략은 insert 마다 DB 가 id 를 만들어야 해서 JDBC batch insert 가 불가능하다.
+     * 시퀀스를 allocationSize 만큼 미리 할당(pooled)해서 batch insert 가 가능하도록 한다.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     private Long id;
 
     private String username;
@@ -37,6 +48,10 @@ public class Member {
         this.team = team;
     }
 
+    /**
+     * 소속 팀 변경
+     * 변경이 flush 되면 hibernate.cache.auto_evict_collection_cache 설정에 의해 이전/새 팀의 Team.members 캐시가 무효화된다.
+     */
     public void changeTeam(Team team) {
         this.team = team;
         team.getMembers().add(this);
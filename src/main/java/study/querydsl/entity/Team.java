@@ -1,24 +1,40 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * 지연 로딩된 Member.team 프록시를 초기화할 때, 같은 영속성 컨텍스트에 있는 초기화되지 않은 Team 프록시를
+ * 최대 100개까지 모아 in 쿼리 한 번으로 함께 로딩한다. (N+1 방지)
+ * members 컬렉션도 같은 방식으로 최대 100개 팀씩 모아 로딩하고, 함께 조회해야 할 때는 "Team.members" 엔티티 그래프를 사용한다.
+ */
 @Entity
+@NamedEntityGraph(name = Team.MEMBERS_GRAPH, attributeNodes = @NamedAttributeNode("members"))
+@BatchSize(size = 100)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
 
+    public static final String MEMBERS_GRAPH = "Team.members";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String name;
 
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team.members")
     @OneToMany(mappedBy =  "team")
     private List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,38 @@
+package study.querydsl.entity;
+
+import lombok.*;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 팀별 회원 통계 요약 테이블
+ * 회원이 추가/수정/삭제되면 해당 팀의 row 만 다시 계산된다. (TeamSummaryMaintainer)
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamSummary {
+
+    @Id
+    private Long teamId;
+
+    private String teamName;
+    private long memberCount;
+    private long ageSum;
+    private int ageMin;
+    private int ageMax;
+
+    public TeamSummary(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public void update(String teamName, long memberCount, long ageSum, int ageMin, int ageMax) {
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+}
@@ -0,0 +1,172 @@
+package study.querydsl.metrics;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchKey;
+import study.querydsl.dto.MemberSearchShape;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static study.querydsl.dto.MemberSearchShape.AGE_GOE;
+import static study.querydsl.dto.MemberSearchShape.AGE_LOE;
+import static study.querydsl.dto.MemberSearchShape.SHAPES;
+import static study.querydsl.dto.MemberSearchShape.TEAM_NAME;
+import static study.querydsl.dto.MemberSearchShape.USERNAME;
+
+/**
+ * 회원 검색 인덱스 추천
+ * 실제로 들어온 검색 조건의 조합(username, teamName, ageGoe, ageLoe 존재 여부 16가지)별 호출 수와 마지막 조건 값을 기록한다.
+ * advise() 는 호출된 조합마다 같은 형태의 SQL 을 EXPLAIN 해서 full scan 이 남아 있으면
+ * 동등 조건 컬럼 -> 범위 조건 컬럼 순서의 복합 인덱스 DDL 과 @Table(indexes = ...) 선언을 만든다.
+ */
+@Component
+public class MemberIndexAdvisor {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+    private final LongAdder[] counts = new LongAdder[SHAPES];
+    private final AtomicReferenceArray<MemberSearchKey> samples = new AtomicReferenceArray<>(SHAPES);
+
+    public MemberIndexAdvisor(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        for (int i = 0; i < SHAPES; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 호출한 쪽이 조건 객체를 재사용해도 기록이 바뀌지 않도록 불변 키(MemberSearchKey)로 복사해서 보관한다.
+     */
+    public void record(MemberSearchCondition condition) {
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        int shape = MemberSearchShape.of(key);
+        counts[shape].increment();
+        samples.lazySet(shape, key);
+    }
+
+    public void reset() {
+        for (int i = 0; i < SHAPES; i++) {
+            counts[i].reset();
+            samples.set(i, null);
+        }
+    }
+
+    /**
+     * 호출 수가 많은 조건 조합부터 현재 실행 계획과 추천 인덱스를 반환한다.
+     */
+    public List<IndexAdvice> advise() {
+        List<IndexAdvice> result = new ArrayList<>();
+        for (int shape = 0; shape < SHAPES; shape++) {
+            MemberSearchKey sample = samples.get(shape);
+            long count = counts[shape].sum();
+            if (sample == null || count == 0) {
+                continue;
+            }
+            String plan = explain(shape, sample);
+            result.add(new IndexAdvice(MemberSearchShape.name(shape), count, plan, recommend(shape, plan)));
+        }
+        result.sort(Comparator.comparingLong(IndexAdvice::getCount).reversed());
+        return result;
+    }
+
+    /**
+     * MemberRepository 검색 쿼리와 같은 형태의 SQL (member left join team)
+     */
+    static String searchSql(int shape) {
+        StringJoiner where = new StringJoiner(" and ", " where ", "").setEmptyValue("");
+        if ((shape & USERNAME) != 0) where.add("m.username = :username");
+        if ((shape & TEAM_NAME) != 0) where.add("t.name = :teamName");
+        if ((shape & AGE_GOE) != 0) where.add("m.age >= :ageGoe");
+        if ((shape & AGE_LOE) != 0) where.add("m.age <= :ageLoe");
+        return "select m.id, m.username, m.age, t.id, t.name from member m left outer join team t on m.team_id = t.id" + where;
+    }
+
+    /**
+     * 동등 조건 컬럼을 앞에, 범위 조건(age) 을 뒤에 둔다.
+     * teamName 조건은 team(name) 으로 팀을 찾고, 회원은 member(team_id, age) 로 찾는다.
+     * 실행 계획에 full scan(tableScan) 이 없으면 추천하지 않는다.
+     */
+    static List<IndexRecommendation> recommend(int shape, String plan) {
+        List<IndexRecommendation> result = new ArrayList<>();
+        boolean ageRange = (shape & (AGE_GOE | AGE_LOE)) != 0;
+        String upperPlan = plan.toUpperCase();
+
+        boolean memberScan = upperPlan.contains("MEMBER.TABLESCAN");
+        boolean teamScan = upperPlan.contains("TEAM.TABLESCAN");
+
+        if (memberScan) {
+            if ((shape & USERNAME) != 0) {
+                result.add(ageRange
+                        ? new IndexRecommendation("member", "username", "age")
+                        : new IndexRecommendation("member", "username"));
+            } else if ((shape & TEAM_NAME) != 0 && ageRange) {
+                // team_id 단독 인덱스는 FK 인덱스로 이미 존재
+                result.add(new IndexRecommendation("member", "team_id", "age"));
+            } else if ((shape & TEAM_NAME) == 0 && ageRange) {
+                result.add(new IndexRecommendation("member", "age"));
+            }
+        }
+        // H2 는 left join 순서를 바꾸지 않아 member 부터 읽지만, 외부 조인을 내부 조인으로 바꾸는 DB 는 team(name) 에서 시작한다
+        if ((shape & TEAM_NAME) != 0 && (memberScan || teamScan)) {
+            result.add(new IndexRecommendation("team", "name"));
+        }
+        return result;
+    }
+
+    private String explain(int shape, MemberSearchKey sample) {
+        return readOnlyTransaction.execute(status -> {
+            Query query = em.createNativeQuery("explain " + searchSql(shape));
+            if ((shape & USERNAME) != 0) query.setParameter("username", sample.username());
+            if ((shape & TEAM_NAME) != 0) query.setParameter("teamName", sample.teamName());
+            if ((shape & AGE_GOE) != 0) query.setParameter("ageGoe", sample.ageGoe());
+            if ((shape & AGE_LOE) != 0) query.setParameter("ageLoe", sample.ageLoe());
+            return String.valueOf(query.getSingleResult());
+        });
+    }
+
+    @Getter
+    public static class IndexAdvice {
+
+        private final String shape;
+        private final long count;
+        private final String plan;
+        private final List<IndexRecommendation> recommendations;
+
+        IndexAdvice(String shape, long count, String plan, List<IndexRecommendation> recommendations) {
+            this.shape = shape;
+            this.count = count;
+            this.plan = plan;
+            this.recommendations = recommendations;
+        }
+    }
+
+    @Getter
+    public static class IndexRecommendation {
+
+        private final String table;
+        private final List<String> columns;
+        private final String name;
+        private final String ddl;
+        private final String jpaIndex;
+
+        IndexRecommendation(String table, String... columns) {
+            this.table = table;
+            this.columns = List.of(columns);
+            this.name = "idx_" + table + "_" + String.join("_", columns);
+            this.ddl = "create index " + name + " on " + table + " (" + String.join(", ", columns) + ");";
+            this.jpaIndex = "@Index(name = \"" + name + "\", columnList = \"" + String.join(", ", columns) + "\")";
+        }
+    }
+}
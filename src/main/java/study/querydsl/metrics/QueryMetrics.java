@@ -0,0 +1,197 @@
+package study.querydsl.metrics;
+
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Querydsl 쿼리 실행 지표
+ * 쿼리 형태(shape) 이름별로 실행 시간 히스토그램, 반환 row 수, 영속성 컨텍스트에 새로 올라간 엔티티 수를 집계한다.
+ * 회원 검색은 호출 위치와 조건 조합을 합친 이름을 사용한다. 예) MemberRepository.searchPage[teamName+ageGoe]
+ * 커서로 읽는 쿼리(start/Timer)는 커서를 닫을 때까지의 시간을 기록한다.
+ * 실행 시간이 slow-threshold 를 넘은 경우에만 JPQL 과 바인딩 값을 로그로 남긴다.
+ * SQL 로그(show_sql, org.hibernate.type: trace) 없이 운영 환경에서 켜 둘 수 있도록 기록은 모두 락 없이 처리한다.
+ */
+@Slf4j
+@Component
+public class QueryMetrics {
+
+    private final EntityManager em;
+    private final long slowThresholdNanos;
+    private final ConcurrentMap<String, ShapeMetrics> shapes = new ConcurrentHashMap<>();
+
+    public QueryMetrics(EntityManager em,
+                        @Value("${member.query-metrics.slow-threshold:200ms}") Duration slowThreshold) {
+        this.em = em;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    public <T> List<T> fetch(String shape, JPAQuery<T> query) {
+        return measure(shape, query::fetch, List::size, () -> describe(query));
+    }
+
+    /**
+     * content 와 count 를 함께 조회하는 fetchResults(), 두 쿼리의 시간을 합쳐서 기록한다.
+     */
+    public <T> QueryResults<T> fetchResults(String shape, JPAQuery<T> query) {
+        return measure(shape, query::fetchResults, results -> results.getResults().size(), () -> describe(query));
+    }
+
+    /**
+     * select count(..) 쿼리, 반환 row 수는 1 로 기록한다.
+     */
+    public long fetchCount(String shape, JPAQuery<Long> query) {
+        Long count = measure(shape, query::fetchOne, result -> 1, () -> describe(query));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Querydsl 쿼리 객체 없이 실행하는 쿼리 (미리 직렬화해 둔 JPQL 등)
+     */
+    public <T> List<T> fetch(String shape, Supplier<String> description, Supplier<List<T>> query) {
+        return measure(shape, query, List::size, description);
+    }
+
+    public Map<String, ShapeSnapshot> snapshot() {
+        Map<String, ShapeSnapshot> result = new TreeMap<>();
+        shapes.forEach((shape, metrics) -> result.put(shape, metrics.snapshot()));
+        return result;
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    /**
+     * 커서(scroll)로 나눠 읽는 쿼리. 커서를 닫을 때 반환한 Timer 의 stop 을 호출하면 그때까지의 시간과 읽은 row 수를 기록한다.
+     */
+    public Timer start(String shape, JPAQuery<?> query) {
+        return new Timer(shape, () -> describe(query));
+    }
+
+    private <R> R measure(String shape, Supplier<R> query, ToIntFunction<R> rowCount, Supplier<String> description) {
+        Timer timer = new Timer(shape, description);
+        R result = query.get();
+        timer.stop(rowCount.applyAsInt(result));
+        return result;
+    }
+
+    public class Timer {
+
+        private final String shape;
+        private final Supplier<String> description;
+        private final SessionImplementor session;
+        private final int managedBefore;
+        private final long start;
+
+        private Timer(String shape, Supplier<String> description) {
+            this.shape = shape;
+            this.description = description;
+            this.session = currentSession();
+            this.managedBefore = managedEntities(session);
+            this.start = System.nanoTime();
+        }
+
+        public void stop(int rows) {
+            long elapsed = System.nanoTime() - start;
+            int managedAfter = session == null || !session.isOpen() ? managedBefore : managedEntities(session);
+            shapes.computeIfAbsent(shape, key -> new ShapeMetrics())
+                    .record(elapsed, rows, Math.max(0, managedAfter - managedBefore), managedAfter);
+
+            if (elapsed > slowThresholdNanos) {
+                log.warn("slow query [{}] {}ms, rows={}\n{}", shape, elapsed / 1_000_000, rows, description.get());
+            }
+        }
+    }
+
+    private static int managedEntities(SessionImplementor session) {
+        return session == null ? 0 : session.getPersistenceContext().getNumberOfManagedEntities();
+    }
+
+    /**
+     * 트랜잭션 밖에서는 공유 EntityManager 가 호출마다 새로 만들어지므로 영속성 컨텍스트 크기를 재지 않는다.
+     */
+    private SessionImplementor currentSession() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        return em.unwrap(SessionImplementor.class);
+    }
+
+    private static String describe(JPAQuery<?> query) {
+        JPQLSerializer serializer = new JPQLSerializer(JPQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return serializer + "\nbindings=" + serializer.getConstants();
+    }
+
+    private static class ShapeMetrics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rowsReturned = new LongAdder();
+        private final LongAdder rowsHydrated = new LongAdder();
+        private final LongAccumulator maxPersistenceContextSize = new LongAccumulator(Math::max, 0);
+
+        void record(long elapsedNanos, int rows, int hydrated, int persistenceContextSize) {
+            latency.record(elapsedNanos);
+            rowsReturned.add(rows);
+            rowsHydrated.add(hydrated);
+            maxPersistenceContextSize.accumulate(persistenceContextSize);
+        }
+
+        ShapeSnapshot snapshot() {
+            return new ShapeSnapshot(
+                    latency.getCount(),
+                    latency.getMeanMicros(),
+                    latency.percentileMicros(50),
+                    latency.percentileMicros(99),
+                    latency.getMaxMicros(),
+                    rowsReturned.sum(),
+                    rowsHydrated.sum(),
+                    maxPersistenceContextSize.get());
+        }
+    }
+
+    @Getter
+    public static class ShapeSnapshot {
+
+        private final long count;
+        private final long meanMicros;
+        private final long p50Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+        private final long rowsReturned;
+        private final long rowsHydrated;
+        private final long maxPersistenceContextSize;
+
+        ShapeSnapshot(long count, long meanMicros, long p50Micros, long p99Micros, long maxMicros,
+                      long rowsReturned, long rowsHydrated, long maxPersistenceContextSize) {
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+            this.rowsReturned = rowsReturned;
+            this.rowsHydrated = rowsHydrated;
+            this.maxPersistenceContextSize = maxPersistenceContextSize;
+        }
+    }
+}
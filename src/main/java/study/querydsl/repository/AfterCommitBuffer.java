@@ -0,0 +1,77 @@
+package study.querydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 트랜잭션 안에서 발생한 변경을 모아두었다가 커밋 후에 한 번에 반영한다.
+ * 모은 변경은 트랜잭션 동기화 객체에 보관하므로, REQUIRES_NEW 로 중첩된 트랜잭션의 변경은 바깥 트랜잭션과 섞이지 않고
+ * 자기 커밋 후에 반영된다. (바깥 트랜잭션이 롤백되어도 안쪽에서 커밋된 변경은 반영된다)
+ * 같은 트랜잭션에서 equals 가 같은 변경이 여러 번 들어오면 마지막으로 들어온 순서에 한 번만 반영하고,
+ * 트랜잭션 동기화가 없으면 즉시 반영한다.
+ * 커밋 후 반영 중 발생한 예외는 이미 커밋을 마친 호출자에게 던지지 않고 로그만 남긴다.
+ */
+@Slf4j
+public class AfterCommitBuffer<T> {
+
+    private final String name;
+    private final Consumer<List<T>> action;
+
+    public AfterCommitBuffer(String name, Consumer<List<T>> action) {
+        this.name = name;
+        this.action = action;
+    }
+
+    public void add(T change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            run(List.of(change));
+            return;
+        }
+        Set<T> changes = batch().changes;
+        changes.remove(change);
+        changes.add(change);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Batch<T> batch() {
+        // 중첩 트랜잭션이 시작되면 바깥 트랜잭션의 동기화 객체는 목록에서 빠지므로 현재 트랜잭션의 Batch 만 찾는다
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Batch<?> batch && batch.owner == this) {
+                return (Batch<T>) batch;
+            }
+        }
+        Batch<T> batch = new Batch<>(this);
+        TransactionSynchronizationManager.registerSynchronization(batch);
+        return batch;
+    }
+
+    private void run(List<T> changes) {
+        try {
+            action.accept(changes);
+        } catch (RuntimeException e) {
+            log.error("{} after-commit changes failed, changes={}", name, changes.size(), e);
+        }
+    }
+
+    private static class Batch<T> implements TransactionSynchronization {
+
+        private final AfterCommitBuffer<T> owner;
+        private final Set<T> changes = new LinkedHashSet<>();
+
+        private Batch(AfterCommitBuffer<T> owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void afterCommit() {
+            owner.run(new ArrayList<>(changes));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@ToString
+public class BulkInsertResult {
+
+    private final long rows;
+    private final long elapsedNanos;
+
+    public BulkInsertResult(long rows, long elapsedNanos) {
+        this.rows = rows;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * 대량 수정/삭제 옵션
+ * chunkSize: 한 트랜잭션에서 처리할 PK 범위의 크기
+ * pause: chunk 사이에 쉬는 시간 (다른 트랜잭션이 락을 얻을 기회를 준다)
+ */
+@Getter
+public class BulkMutationOptions {
+
+    private final long chunkSize;
+    private final Duration pause;
+
+    private BulkMutationOptions(long chunkSize, Duration pause) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다: " + chunkSize);
+        }
+        if (pause == null || pause.isNegative()) {
+            throw new IllegalArgumentException("pause 는 0 이상이어야 합니다: " + pause);
+        }
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+    }
+
+    public static BulkMutationOptions of(long chunkSize) {
+        return new BulkMutationOptions(chunkSize, Duration.ZERO);
+    }
+
+    public static BulkMutationOptions of(long chunkSize, Duration pause) {
+        return new BulkMutationOptions(chunkSize, pause);
+    }
+}
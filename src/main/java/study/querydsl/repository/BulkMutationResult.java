@@ -0,0 +1,43 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class BulkMutationResult {
+
+    private final List<Chunk> chunks;
+    private final boolean interrupted;
+
+    BulkMutationResult(List<Chunk> chunks, boolean interrupted) {
+        this.chunks = List.copyOf(chunks);
+        this.interrupted = interrupted;
+    }
+
+    public long getTotalRows() {
+        return chunks.stream().mapToLong(Chunk::getRows).sum();
+    }
+
+    /**
+     * 하나의 PK 범위 [fromId, toId] 를 처리한 결과
+     */
+    @Getter
+    @ToString
+    public static class Chunk {
+
+        private final long fromId;
+        private final long toId;
+        private final long rows;
+        private final long elapsedNanos;
+
+        Chunk(long fromId, long toId, long rows, long elapsedNanos) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+}
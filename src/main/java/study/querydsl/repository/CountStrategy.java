@@ -0,0 +1,27 @@
+package study.querydsl.repository;
+
+/**
+ * 페이징 조회 시 전체 카운트를 구하는 방법
+ */
+public enum CountStrategy {
+
+    /**
+     * 매 요청마다 count 쿼리 실행 (첫/마지막 페이지는 PageableExecutionUtils 가 생략)
+     */
+    EXACT,
+
+    /**
+     * 검색 조건별 count 결과를 TTL 동안 캐시
+     */
+    CACHED,
+
+    /**
+     * 조건이 없으면 DB 통계의 추정 row 수를 사용, 조건이 있으면 CACHED 와 동일
+     */
+    APPROXIMATE,
+
+    /**
+     * count 쿼리 없이 limit + 1 건을 조회해서 다음 페이지 존재 여부만 판단 (전체 건수가 없는 Slice 로 반환)
+     */
+    HAS_NEXT
+}
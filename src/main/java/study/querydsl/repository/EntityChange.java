@@ -0,0 +1,47 @@
+package study.querydsl.repository;
+
+import org.hibernate.proxy.HibernateProxy;
+import study.querydsl.entity.Team;
+
+import java.util.Arrays;
+
+/**
+ * Hibernate insert/update/delete 이벤트 하나
+ * state 는 이벤트 시점의 프로퍼티 값이고, oldState 는 update 이전 값(update 가 아니면 null)이다.
+ */
+public record EntityChange(Type type, Object entity, Object id, String[] propertyNames, Object[] state, Object[] oldState) {
+
+    public enum Type {
+        INSERT, UPDATE, DELETE
+    }
+
+    public boolean isDelete() {
+        return type == Type.DELETE;
+    }
+
+    public Object property(String name) {
+        return value(state, name);
+    }
+
+    public Object oldProperty(String name) {
+        return value(oldState, name);
+    }
+
+    private Object value(Object[] values, String name) {
+        if (values == null) {
+            return null;
+        }
+        int index = Arrays.asList(propertyNames).indexOf(name);
+        return index < 0 ? null : values[index];
+    }
+
+    /**
+     * 연관된 팀의 id. 프록시는 초기화하지 않고 id 만 꺼낸다.
+     */
+    public static Long teamId(Object team) {
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return team instanceof Team ? ((Team) team).getId() : null;
+    }
+}
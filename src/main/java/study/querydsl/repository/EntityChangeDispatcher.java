@@ -0,0 +1,75 @@
+package study.querydsl.repository;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * Hibernate insert/update/delete 이벤트를 한 번만 등록하고 EntityChangeListener 빈들에게 전달한다.
+ * JPQL bulk update/delete 와 JDBC 로 직접 실행한 변경은 이벤트가 발생하지 않는다.
+ */
+@Component
+public class EntityChangeDispatcher implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final ObjectProvider<EntityChangeListener> listenerProvider;
+    private List<EntityChangeListener> listeners = List.of();
+
+    public EntityChangeDispatcher(EntityManagerFactory emf, ObjectProvider<EntityChangeListener> listenerProvider) {
+        this.emf = emf;
+        this.listenerProvider = listenerProvider;
+    }
+
+    @PostConstruct
+    public void register() {
+        listeners = listenerProvider.orderedStream().toList();
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        dispatch(new EntityChange(EntityChange.Type.INSERT, event.getEntity(), event.getId(),
+                event.getPersister().getPropertyNames(), event.getState(), null));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        dispatch(new EntityChange(EntityChange.Type.UPDATE, event.getEntity(), event.getId(),
+                event.getPersister().getPropertyNames(), event.getState(), event.getOldState()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        dispatch(new EntityChange(EntityChange.Type.DELETE, event.getEntity(), event.getId(),
+                event.getPersister().getPropertyNames(), event.getDeletedState(), null));
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void dispatch(EntityChange change) {
+        for (EntityChangeListener listener : listeners) {
+            listener.onEntityChange(change);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.repository;
+
+/**
+ * EntityChangeDispatcher 가 전달하는 엔티티 변경을 받는다.
+ * flush 시점(트랜잭션 안)에 호출되므로, 커밋된 변경만 반영해야 하는 경우 AfterCommitBuffer 에 담아서 커밋 후에 반영한다.
+ */
+public interface EntityChangeListener {
+
+    void onEntityChange(EntityChange change);
+}
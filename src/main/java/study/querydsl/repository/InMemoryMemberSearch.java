@@ -0,0 +1,346 @@
+package study.querydsl.repository;
+
+import com.querydsl.collections.CollQueryFactory;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 메모리 회원 검색 (member.search.backend=memory)
+ * 회원/팀을 MemberTeamDTO row 로 메모리에 올려두고 MemberSearchCondition 을 DB 없이 처리한다.
+ * username, team.name 은 해시 색인, age 는 정렬된 색인으로 후보를 좁힌 뒤 querydsl-collections 로 나머지 조건을 평가한다.
+ * Member/Team 변경은 커밋 후에 반영되며, JPQL bulk 연산 이후에는 refresh(ids) 로 다시 읽어야 한다.
+ * MemberBulkWriter 로 대량 저장한 트랜잭션은 회원마다 변경을 모으지 않고 커밋 후 rebuild() 한 번으로 반영한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.search.backend", havingValue = "memory")
+public class InMemoryMemberSearch implements EntityChangeListener {
+
+    private static final PathBuilder<MemberTeamDTO> row = new PathBuilder<>(MemberTeamDTO.class, "row");
+    private static final NumberPath<Long> rowMemberId = row.getNumber("memberId", Long.class);
+    private static final StringPath rowUsername = row.getString("username");
+    private static final NumberPath<Integer> rowAge = row.getNumber("age", Integer.class);
+    private static final StringPath rowTeamName = row.getString("teamName");
+    private static final Runnable REBUILD = () -> {
+    };
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AfterCommitBuffer<Runnable> pending = new AfterCommitBuffer<>("in-memory member search", this::apply);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, MemberTeamDTO> rows = new HashMap<>();
+    private final Map<Long, String> teamNames = new HashMap<>();
+    private final Map<String, Set<Long>> idsByUsername = new HashMap<>();
+    private final Map<String, Set<Long>> idsByTeamName = new HashMap<>();
+    private final Map<Long, Set<Long>> idsByTeamId = new HashMap<>();
+    private final NavigableMap<Integer, Set<Long>> idsByAge = new TreeMap<>();
+    /**
+     * rebuild() 가 DB 를 읽는 동안 반영된 변경. 읽은 스냅샷으로 교체한 뒤 다시 반영해서 그 사이 커밋된 변경을 잃지 않는다.
+     */
+    private List<Runnable> changesDuringRebuild;
+
+    public InMemoryMemberSearch(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // 커밋 후(afterCommit)에 호출되어도 끝난 트랜잭션에 참여하지 않도록 새 트랜잭션에서 읽는다
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        lock.readLock().lock();
+        try {
+            List<MemberTeamDTO> candidates = candidates(condition);
+            List<MemberTeamDTO> matched = CollQueryFactory.from(row, candidates)
+                    .where(usernameEq(condition.getUsername()),
+                            teamNameEq(condition.getTeamName()),
+                            ageGoe(condition.getAgeGoe()),
+                            ageLoe(condition.getAgeLoe()))
+                    .orderBy(rowMemberId.asc())
+                    .fetch();
+
+            // 저장된 row 를 호출한 쪽에서 바꾸지 못하도록 복사해서 반환
+            List<MemberTeamDTO> result = new ArrayList<>(matched.size());
+            for (MemberTeamDTO dto : matched) {
+                result.add(new MemberTeamDTO(dto.getMemberId(), dto.getUsername(), dto.getAge(), dto.getTeamId(), dto.getTeamName()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 색인 중 후보가 가장 적은 것을 골라 후보 row 를 만든다. 사용할 색인이 없으면 전체 row.
+     */
+    private List<MemberTeamDTO> candidates(MemberSearchCondition condition) {
+        Collection<Long> best = null;
+        if (!isEmpty(condition.getUsername())) {
+            best = idsByUsername.getOrDefault(condition.getUsername(), Set.of());
+        }
+        if (!isEmpty(condition.getTeamName())) {
+            best = smaller(best, idsByTeamName.getOrDefault(condition.getTeamName(), Set.of()));
+        }
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            NavigableMap<Integer, Set<Long>> range = idsByAge;
+            if (condition.getAgeGoe() != null) range = range.tailMap(condition.getAgeGoe(), true);
+            if (condition.getAgeLoe() != null) range = range.headMap(condition.getAgeLoe(), true);
+
+            int rangeSize = 0;
+            for (Set<Long> ids : range.values()) {
+                rangeSize += ids.size();
+            }
+            if (best == null || rangeSize < best.size()) {
+                List<Long> ids = new ArrayList<>(rangeSize);
+                range.values().forEach(ids::addAll);
+                best = ids;
+            }
+        }
+
+        if (best == null) {
+            return new ArrayList<>(rows.values());
+        }
+        List<MemberTeamDTO> result = new ArrayList<>(best.size());
+        for (Long id : best) {
+            result.add(rows.get(id));
+        }
+        return result;
+    }
+
+    private static Collection<Long> smaller(Collection<Long> current, Collection<Long> candidate) {
+        return current == null || candidate.size() < current.size() ? candidate : current;
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return isEmpty(username) ? null : rowUsername.eq(username);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return isEmpty(teamName) ? null : rowTeamName.eq(teamName);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe == null ? null : rowAge.goe(ageGoe);
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe == null ? null : rowAge.loe(ageLoe);
+    }
+
+    /**
+     * 애플리케이션 시작 시 DB 의 전체 팀/회원을 읽는다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Tuple> teams = new ArrayList<>();
+        List<Tuple> members = new ArrayList<>();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                teams.addAll(queryFactory
+                        .select(team.id, team.name)
+                        .from(team)
+                        .fetch());
+                members.addAll(queryFactory
+                        .select(member.id, member.username, member.age, member.team.id)
+                        .from(member)
+                        .fetch());
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            changesDuringRebuild = null;
+            lock.writeLock().unlock();
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            rows.clear();
+            teamNames.clear();
+            idsByUsername.clear();
+            idsByTeamName.clear();
+            idsByTeamId.clear();
+            idsByAge.clear();
+            for (Tuple tuple : teams) {
+                teamNames.put(tuple.get(team.id), tuple.get(team.name));
+            }
+            for (Tuple tuple : members) {
+                putMember(tuple.get(member.id), tuple.get(member.username), tuple.get(member.age), tuple.get(member.team.id));
+            }
+            changesDuringRebuild.forEach(Runnable::run);
+        } finally {
+            changesDuringRebuild = null;
+            lock.writeLock().unlock();
+        }
+        log.info("in-memory member search rebuilt teams={}, members={}", teams.size(), members.size());
+    }
+
+    /**
+     * 지정한 회원만 DB 에서 다시 읽어서 반영한다. (bulk 연산 이후)
+     */
+    public void refresh(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Tuple> members = readOnlyTransaction.execute(status -> queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(member.id.in(ids))
+                .fetch());
+
+        List<Runnable> changes = new ArrayList<>();
+        ids.forEach(id -> changes.add(() -> removeMember(id)));
+        for (Tuple tuple : members) {
+            Long id = tuple.get(member.id);
+            String username = tuple.get(member.username);
+            int age = tuple.get(member.age);
+            Long teamId = tuple.get(member.team.id);
+            changes.add(() -> putMember(id, username, age, teamId));
+        }
+        apply(changes);
+    }
+
+    /**
+     * 이벤트 시점의 값을 복사해 두었다가 커밋 후에 반영한다.
+     */
+    @Override
+    public void onEntityChange(EntityChange change) {
+        boolean deleted = change.isDelete();
+        if (change.entity() instanceof Member && MemberBulkWriter.isBulkInsert()) {
+            pending.add(REBUILD);
+        } else if (change.entity() instanceof Member) {
+            Member changed = (Member) change.entity();
+            Long id = changed.getId();
+            String username = changed.getUsername();
+            int age = changed.getAge();
+            Long teamId = EntityChange.teamId(changed.getTeam());
+            pending.add(deleted
+                    ? () -> removeMember(id)
+                    : () -> {
+                        removeMember(id);
+                        putMember(id, username, age, teamId);
+                    });
+        } else if (change.entity() instanceof Team) {
+            Long id = ((Team) change.entity()).getId();
+            String name = ((Team) change.entity()).getName();
+            pending.add(() -> putTeam(id, deleted ? null : name));
+        }
+    }
+
+    private void apply(List<Runnable> changes) {
+        if (changes.contains(REBUILD)) {
+            // 대량 저장 이후에는 같은 트랜잭션의 다른 변경도 DB 에서 함께 다시 읽는다
+            rebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changes.forEach(Runnable::run);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.addAll(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 팀 이름이 바뀌면 소속 회원 row 도 다시 만든다. (name 이 null 이면 삭제)
+     */
+    private void putTeam(Long teamId, String name) {
+        if (name == null) {
+            teamNames.remove(teamId);
+        } else {
+            teamNames.put(teamId, name);
+        }
+        for (Long memberId : new ArrayList<>(idsByTeamId.getOrDefault(teamId, Set.of()))) {
+            MemberTeamDTO old = rows.get(memberId);
+            removeMember(memberId);
+            putMember(memberId, old.getUsername(), old.getAge(), teamId);
+        }
+    }
+
+    private void putMember(Long id, String username, int age, Long teamId) {
+        MemberTeamDTO dto = new MemberTeamDTO(id, username, age, teamId, teamId == null ? null : teamNames.get(teamId));
+        rows.put(id, dto);
+        addPosting(idsByUsername, username, id);
+        addPosting(idsByTeamName, dto.getTeamName(), id);
+        addPosting(idsByTeamId, teamId, id);
+        addPosting(idsByAge, age, id);
+    }
+
+    private void removeMember(Long id) {
+        MemberTeamDTO dto = rows.remove(id);
+        if (dto == null) {
+            return;
+        }
+        removePosting(idsByUsername, dto.getUsername(), id);
+        removePosting(idsByTeamName, dto.getTeamName(), id);
+        removePosting(idsByTeamId, dto.getTeamId(), id);
+        removePosting(idsByAge, dto.getAge(), id);
+    }
+
+    private static <K> void addPosting(Map<K, Set<Long>> postings, K key, Long id) {
+        if (key != null) {
+            postings.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static <K> void removePosting(Map<K, Set<Long>> postings, K key, Long id) {
+        if (key == null) {
+            return;
+        }
+        Set<Long> ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 회원 대량 수정/삭제를 PK 범위 chunk 로 나누어 실행
+ * 한 번의 update/delete 로 넓은 범위를 잠그는 대신, chunk 마다 별도 트랜잭션으로 커밋하고 설정한 시간만큼 쉰다.
+ * 처리한 회원은 팀의 members 컬렉션 2차 캐시와 호출한 쪽의 영속성 컨텍스트에서 제거하고, username 색인과 메모리 검색에 다시 반영한다.
+ * 처리한 회원이 수정 전후에 속한 팀의 요약(TeamSummary)도 chunk 마다 다시 계산한다.
+ * 처리 건수는 update/delete 가 실제로 변경한 row 수다.
+ */
+@Service
+public class MemberBulkMutationService {
+
+    private static final String TEAM_MEMBERS_ROLE = Team.class.getName() + ".members";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate chunkTransaction;
+    private final MemberDataVersion dataVersion;
+    private final ObjectProvider<UsernameIndex> usernameIndex;
+    private final ObjectProvider<InMemoryMemberSearch> inMemorySearch;
+    private final ObjectProvider<TeamSummaryMaintainer> teamSummaryMaintainer;
+
+    public MemberBulkMutationService(EntityManager em, JPAQueryFactory queryFactory,
+                                     PlatformTransactionManager transactionManager, MemberDataVersion dataVersion,
+                                     ObjectProvider<UsernameIndex> usernameIndex,
+                                     ObjectProvider<InMemoryMemberSearch> inMemorySearch,
+                                     ObjectProvider<TeamSummaryMaintainer> teamSummaryMaintainer) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.dataVersion = dataVersion;
+        this.usernameIndex = usernameIndex;
+        this.inMemorySearch = inMemorySearch;
+        this.teamSummaryMaintainer = teamSummaryMaintainer;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 예) update(member.age.lt(28), update -> update.set(member.username, "비회원"), BulkMutationOptions.of(1000))
+     */
+    public BulkMutationResult update(Predicate predicate, Consumer<JPAUpdateClause> setter, BulkMutationOptions options) {
+        // setter 가 회원의 팀을 바꿀 수 있으므로 members 컬렉션 캐시는 팀에 상관없이 모두 제거한다
+        return execute(predicate, options, true, (fromId, toId) -> {
+            JPAUpdateClause update = queryFactory.update(member);
+            setter.accept(update);
+            return update
+                    .where(member.id.between(fromId, toId), predicate)
+                    .execute();
+        });
+    }
+
+    public BulkMutationResult delete(Predicate predicate, BulkMutationOptions options) {
+        return execute(predicate, options, false, (fromId, toId) -> queryFactory
+                .delete(member)
+                .where(member.id.between(fromId, toId), predicate)
+                .execute());
+    }
+
+    private BulkMutationResult execute(Predicate predicate, BulkMutationOptions options, boolean evictAllTeamMembers,
+                                       ChunkMutation mutation) {
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(predicate)
+                .fetchOne();
+
+        List<BulkMutationResult.Chunk> chunks = new ArrayList<>();
+        if (range == null || range.get(member.id.min()) == null) {
+            return new BulkMutationResult(chunks, false);
+        }
+
+        long minId = range.get(member.id.min());
+        long maxId = range.get(member.id.max());
+        for (long fromId = minId; fromId <= maxId; fromId += options.getChunkSize()) {
+            long toId = Math.min(fromId + options.getChunkSize() - 1, maxId);
+            chunks.add(executeChunk(predicate, fromId, toId, evictAllTeamMembers, mutation));
+
+            if (toId < maxId && !pause(options)) {
+                return new BulkMutationResult(chunks, true);
+            }
+        }
+        return new BulkMutationResult(chunks, false);
+    }
+
+    private BulkMutationResult.Chunk executeChunk(Predicate predicate, long fromId, long toId,
+                                                  boolean evictAllTeamMembers, ChunkMutation mutation) {
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>();
+        Set<Long> teamIds = new HashSet<>();
+        Long rows = chunkTransaction.execute(status -> {
+            List<Tuple> affected = queryFactory
+                    .select(member.id, member.team.id)
+                    .from(member)
+                    .where(member.id.between(fromId, toId), predicate)
+                    .fetch();
+            if (affected.isEmpty()) {
+                return 0L;
+            }
+            for (Tuple tuple : affected) {
+                ids.add(tuple.get(member.id));
+                Long teamId = tuple.get(member.team.id);
+                if (teamId != null) {
+                    teamIds.add(teamId);
+                }
+            }
+            long changed = mutation.execute(fromId, toId);
+            // update 로 팀을 옮긴 경우 새 팀도 요약을 다시 계산해야 한다 (삭제된 회원은 조회되지 않는다)
+            teamIds.addAll(queryFactory
+                    .select(member.team.id)
+                    .distinct()
+                    .from(member)
+                    .where(member.id.in(ids), member.team.isNotNull())
+                    .fetch());
+            // bulk 연산은 엔티티 이벤트가 발생하지 않으므로 직접 데이터 버전을 올린다
+            dataVersion.increment();
+            return changed;
+        });
+
+        evict(ids, teamIds, evictAllTeamMembers);
+        usernameIndex.ifAvailable(index -> index.refresh(ids));
+        inMemorySearch.ifAvailable(search -> search.refresh(ids));
+        teamSummaryMaintainer.ifAvailable(maintainer -> maintainer.refresh(teamIds));
+        return new BulkMutationResult.Chunk(fromId, toId, rows == null ? 0 : rows, System.nanoTime() - start);
+    }
+
+    /**
+     * bulk 연산은 영속성 컨텍스트와 2차 캐시를 거치지 않으므로 처리한 회원과 소속 팀의 members 컬렉션을 직접 제거한다.
+     */
+    private void evict(List<Long> ids, Set<Long> teamIds, boolean evictAllTeamMembers) {
+        Cache cache = em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        if (evictAllTeamMembers) {
+            cache.evictCollectionData(TEAM_MEMBERS_ROLE);
+        } else {
+            teamIds.forEach(teamId -> cache.evictCollectionData(TEAM_MEMBERS_ROLE, teamId));
+        }
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+        }
+    }
+
+    private boolean pause(BulkMutationOptions options) {
+        if (options.getPause().isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(options.getPause().toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkMutation {
+        long execute(long fromId, long toId);
+    }
+}
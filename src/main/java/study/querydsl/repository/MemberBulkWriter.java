@@ -0,0 +1,84 @@
+package study.querydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 회원 대량 저장
+ * Member 는 pooled 시퀀스로 id 를 미리 할당하므로 hibernate.jdbc.batch_size 단위로 JDBC batch insert 된다.
+ * chunkSize 마다 flush 하고 이번 chunk 에서 저장한 회원만 detach 해서 영속성 컨텍스트가 커지지 않도록 한다.
+ * 호출한 쪽이 이미 불러온 다른 엔티티는 detach 하지 않는다. 저장한 Member 객체는 반환 후 준영속 상태다.
+ * 저장하는 동안에는 트랜잭션에 대량 저장 중임을 표시해서, 회원마다 커밋 후 반영할 변경을 쌓는 리스너(UsernameIndex, InMemoryMemberSearch)가
+ * 변경을 모으지 않고 커밋 후 한 번 다시 만들도록 한다. 그래서 메모리 사용량이 저장 건수와 무관하다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberBulkWriter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 50;
+
+    private static final String BULK_INSERT = MemberBulkWriter.class.getName() + ".BULK_INSERT";
+
+    private final EntityManager em;
+
+    @Transactional
+    public BulkInsertResult insertAll(Iterable<Member> members) {
+        return insertAll(members, DEFAULT_CHUNK_SIZE);
+    }
+
+    @Transactional
+    public BulkInsertResult insertAll(Iterable<Member> members, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다: " + chunkSize);
+        }
+
+        long start = System.nanoTime();
+        long rows = 0;
+        List<Member> chunk = new ArrayList<>(chunkSize);
+        boolean outermost = !isBulkInsert();
+        if (outermost) {
+            TransactionSynchronizationManager.bindResource(BULK_INSERT, Boolean.TRUE);
+        }
+        try {
+            for (Member member : members) {
+                em.persist(member);
+                chunk.add(member);
+                rows++;
+                if (chunk.size() == chunkSize) {
+                    flushAndDetach(chunk);
+                }
+            }
+            flushAndDetach(chunk);
+        } finally {
+            if (outermost) {
+                TransactionSynchronizationManager.unbindResource(BULK_INSERT);
+            }
+        }
+
+        BulkInsertResult result = new BulkInsertResult(rows, System.nanoTime() - start);
+        log.info("bulk insert members: rows={}, rowsPerSecond={}", result.getRows(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * 현재 스레드가 insertAll 로 대량 저장 중인지 (이 동안 발생한 insert 이벤트는 대량 저장의 것이다)
+     */
+    static boolean isBulkInsert() {
+        return TransactionSynchronizationManager.hasResource(BULK_INSERT);
+    }
+
+    private void flushAndDetach(List<Member> chunk) {
+        em.flush();
+        chunk.forEach(em::detach);
+        chunk.clear();
+    }
+}
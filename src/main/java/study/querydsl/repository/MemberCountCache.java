@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchKey;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 검색 조건별 count 결과 캐시
+ * TTL 이 지나거나 회원/팀이 변경되면(MemberDataVersion) 다시 조회하고, 최대 크기를 넘으면 가장 오래 사용하지 않은 조건부터 제거한다.
+ * 조건은 정규화된 키(MemberSearchKey)로 구분하고, 결과가 없을 수밖에 없는 조건은 조회하지 않고 0 을 반환한다.
+ */
+@Component
+public class MemberCountCache {
+
+    private final MemberDataVersion dataVersion;
+    private final long ttlNanos;
+    private final Map<MemberSearchKey, Entry> entries;
+
+    public MemberCountCache(MemberDataVersion dataVersion,
+                            @Value("${member.count-cache.ttl:30s}") Duration ttl,
+                            @Value("${member.count-cache.max-size:1000}") int maxSize) {
+        this.dataVersion = dataVersion;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MemberSearchKey, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public long get(MemberSearchCondition condition, LongSupplier countLoader) {
+        MemberSearchKey key = MemberSearchKey.of(condition);
+        if (key.matchesNothing()) {
+            return 0;
+        }
+        // 조회 전에 버전을 읽어야 조회 중에 커밋된 변경이 예전 버전으로 저장되어도 바로 무효화된다
+        long version = dataVersion.current();
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version == version && now - entry.loadedAt < ttlNanos) {
+                return entry.count;
+            }
+        }
+
+        long count = countLoader.getAsLong();
+        synchronized (entries) {
+            entries.put(key, new Entry(count, version, now));
+        }
+        return count;
+    }
+
+    public void evictAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private record Entry(long count, long version, long loadedAt) {
+    }
+}
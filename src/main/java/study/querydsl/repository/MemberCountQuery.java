@@ -0,0 +1,26 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * MemberCountQueryBuilder 가 만든 count 쿼리와, 최적화 과정에서 제거한 join 목록
+ */
+@Getter
+public class MemberCountQuery {
+
+    private final JPAQuery<Long> query;
+    private final List<String> removedJoins;
+
+    MemberCountQuery(JPAQuery<Long> query, List<String> removedJoins) {
+        this.query = query;
+        this.removedJoins = List.copyOf(removedJoins);
+    }
+
+    public long fetchCount() {
+        Long count = query.fetchOne();
+        return count == null ? 0 : count;
+    }
+}
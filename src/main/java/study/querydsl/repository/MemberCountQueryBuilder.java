@@ -0,0 +1,60 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberPredicates.ageGoe;
+import static study.querydsl.repository.MemberPredicates.ageLoe;
+import static study.querydsl.repository.MemberPredicates.teamNameEq;
+import static study.querydsl.repository.MemberPredicates.usernameEq;
+
+/**
+ * 회원 검색 count 쿼리 생성기
+ * 실제로 사용되는 조건만 보고 count 결과에 영향을 주지 않는 join 을 제거한다.
+ * member -> team 은 to-one 관계이므로 left join 은 row 수를 바꾸지 않는다. teamName 조건이 없으면 join 을 생략한다.
+ * 조건은 검색 쿼리와 같은 MemberPredicates 를 사용한다.
+ */
+@Slf4j
+public class MemberCountQueryBuilder {
+
+    static final String TEAM_JOIN = "left join member.team team";
+
+    private final JPAQueryFactory queryFactory;
+
+    public MemberCountQueryBuilder(JPAQueryFactory queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    public MemberCountQuery build(MemberSearchCondition condition) {
+        List<String> removedJoins = new ArrayList<>();
+
+        JPAQuery<Long> query = queryFactory
+                .select(member.count())
+                .from(member);
+
+        BooleanExpression teamNameEq = teamNameEq(condition.getTeamName());
+        if (teamNameEq == null) {
+            removedJoins.add(TEAM_JOIN);
+        } else {
+            query.leftJoin(member.team, team);
+        }
+
+        query.where(usernameEq(condition.getUsername()),
+                teamNameEq,
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()));
+
+        if (log.isDebugEnabled()) {
+            log.debug("count query optimized: removedJoins={}", removedJoins);
+        }
+        return new MemberCountQuery(query, removedJoins);
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.repository;
+
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원 검색 결과의 데이터 버전
+ * Member 가 insert/update/delete 되거나 Team 이 update(이름 변경)된 트랜잭션이 커밋되면 버전이 올라간다.
+ * 회원이 없는 팀의 추가/삭제, TeamSummary 변경은 회원 검색 결과를 바꾸지 않으므로 버전을 올리지 않는다.
+ * 한 트랜잭션에서 여러 건을 바꿔도(MemberBulkWriter 의 대량 저장 등) 커밋 후에 한 번만 올린다.
+ * 커밋 전에 올리면 아직 커밋되지 않은 예전 데이터가 새 버전으로 캐시될 수 있으므로 커밋 후에 올린다.
+ * JPQL bulk update/delete, JDBC 로 직접 쓰는 경우는 이벤트가 발생하지 않으므로 실행한 쪽에서 increment() 를 호출해야 한다.
+ */
+@Component
+public class MemberDataVersion implements EntityChangeListener {
+
+    private final AtomicLong version = new AtomicLong();
+    private final AfterCommitBuffer<Boolean> pending =
+            new AfterCommitBuffer<>("member data version", changes -> version.incrementAndGet());
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 트랜잭션 안이라면 커밋 후에(트랜잭션마다 한 번), 아니라면 즉시 버전을 올린다.
+     */
+    public void increment() {
+        pending.add(Boolean.TRUE);
+    }
+
+    @Override
+    public void onEntityChange(EntityChange change) {
+        if (change.entity() instanceof Member
+                || change.entity() instanceof Team && change.type() == EntityChange.Type.UPDATE) {
+            increment();
+        }
+    }
+}
@@ -1,30 +1,55 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.BooleanBuilder;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
 import study.querydsl.entity.Member;
+import study.querydsl.metrics.MemberIndexAdvisor;
+import study.querydsl.metrics.QueryMetrics;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import static org.springframework.util.ObjectUtils.isEmpty;
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberPredicates.ageGoe;
+import static study.querydsl.repository.MemberPredicates.ageLoe;
+import static study.querydsl.repository.MemberPredicates.matchesNothing;
+import static study.querydsl.repository.MemberPredicates.teamNameEq;
+import static study.querydsl.repository.MemberPredicates.usernameEq;
+import static study.querydsl.repository.MemberSearchQueryCache.metricName;
+import static study.querydsl.repository.ReadOnlyQuery.readOnly;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberJPARepository {
 
+    public static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+    public static final int USERNAME_IN_CHUNK_SIZE = 128;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final QueryMetrics queryMetrics;
+    private final MemberIndexAdvisor indexAdvisor;
+    private final MemberSearchQueryCache searchQueryCache;
 
     public void save(Member member) {
         em.persist(member);
@@ -47,34 +72,75 @@ public class MemberJPARepository {
     }
 
     public List<Member> findAll_QueryDSL() {
-        return queryFactory
-                .selectFrom(member).fetch();
+        return queryMetrics.fetch("MemberJPARepository.findAll", queryFactory
+                .selectFrom(member));
+    }
+
+    /**
+     * 변경하지 않을 엔티티 목록 조회용. 결과는 읽기 전용이라 수정해도 DB 에 반영되지 않는다. (ReadOnlyQuery)
+     */
+    @Transactional(readOnly = true)
+    public List<Member> findAllReadOnly() {
+        return queryMetrics.fetch("MemberJPARepository.findAllReadOnly", readOnly(queryFactory
+                .selectFrom(member)));
     }
 
     public List<Member> findByUsername_QueryDSL(String username) {
-        return queryFactory
+        return queryMetrics.fetch("MemberJPARepository.findByUsername", queryFactory
                 .selectFrom(member)
-                .where(member.username.eq(username))
-                .fetch();
+                .where(member.username.eq(username)));
     }
 
-    public List<MemberTeamDTO> searchByBuilder(MemberSearchCondition condition) {
-
-        BooleanBuilder builder = new BooleanBuilder();
-
-        if (hasText(condition.getUsername()))
-            builder.and(member.username.eq(condition.getUsername()));
-
-        if (hasText(condition.getTeamName()))
-            builder.and(team.name.eq(condition.getTeamName()));
+    /**
+     * 여러 username 을 IN 절 한 번으로 조회한다.
+     * IN 절 파라미터 개수마다 SQL 이 달라져 statement/plan 캐시가 분산되므로,
+     * USERNAME_IN_CHUNK_SIZE 단위로 나누고 각 chunk 를 2의 거듭제곱 개수로 채운다(마지막 username 반복).
+     * 따라서 생성되는 SQL 은 최대 8 종류(1, 2, 4, ..., 128)다.
+     */
+    public List<Member> findByUsernames(Collection<String> usernames) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(usernames));
+        List<Member> result = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += USERNAME_IN_CHUNK_SIZE) {
+            List<String> chunk = keys.subList(from, Math.min(from + USERNAME_IN_CHUNK_SIZE, keys.size()));
+            result.addAll(queryMetrics.fetch("MemberJPARepository.findByUsernames", queryFactory
+                    .selectFrom(member)
+                    .where(member.username.in(padInList(chunk)))));
+        }
+        return result;
+    }
 
-        if (condition.getAgeGoe() != null)
-            builder.and(member.age.goe(condition.getAgeGoe()));
+    static List<String> padInList(List<String> chunk) {
+        int paddedSize = Integer.highestOneBit(chunk.size());
+        if (paddedSize < chunk.size()) {
+            paddedSize <<= 1;
+        }
+        List<String> padded = new ArrayList<>(paddedSize);
+        padded.addAll(chunk);
+        String last = chunk.get(chunk.size() - 1);
+        while (padded.size() < paddedSize) {
+            padded.add(last);
+        }
+        return padded;
+    }
 
-        if (condition.getAgeLoe() != null)
-            builder.and(member.age.loe(condition.getAgeLoe()));
+    /**
+     * BooleanBuilder 로 조립하던 조건도 조건 4개의 존재 여부 조합으로 형태가 정해지므로
+     * 미리 직렬화해 둔 쿼리 템플릿(MemberSearchQueryCache)에 파라미터만 바인딩해서 조회한다.
+     */
+    @Transactional(readOnly = true)
+    public List<MemberTeamDTO> searchByBuilder(MemberSearchCondition condition) {
+        if (!searchable(condition)) {
+            return new ArrayList<>();
+        }
+        return searchQueryCache.search("MemberJPARepository.searchByBuilder", condition);
+    }
 
-        return queryFactory
+    @Transactional(readOnly = true)
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        if (!searchable(condition)) {
+            return new ArrayList<>();
+        }
+        return queryMetrics.fetch(metricName("MemberJPARepository.search", condition), queryFactory
                 .select(new QMemberTeamDTO(
                         member.id,
                         member.username,
@@ -84,50 +150,123 @@ public class MemberJPARepository {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)
-                .fetch();
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())));
     }
 
-    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDTO(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                ))
+    public Stream<MemberTeamDTO> stream(MemberSearchCondition condition) {
+        return stream(condition, DEFAULT_STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * 검색 결과를 한 번에 메모리에 올리지 않고 forward-only 커서로 member.id 순으로 읽는다.
+     * JDBC fetch size 만큼씩 가져오고, 엔티티가 아닌 DTO 로 조회하므로 영속성 컨텍스트에 쌓이는 것이 없어 결과 크기와 무관하게 메모리 사용량이 일정하다.
+     * 호출한 쪽이 이미 불러온 엔티티는 건드리지 않는다. 트랜잭션 안에서 호출하고, 사용 후에는 반드시 Stream 을 닫아야 한다.
+     */
+    public Stream<MemberTeamDTO> stream(MemberSearchCondition condition, int fetchSize) {
+        if (!searchable(condition)) {
+            return Stream.empty();
+        }
+        QMemberTeamDTO projection = new QMemberTeamDTO(
+                member.id,
+                member.username,
+                member.age,
+                team.id,
+                team.name
+        );
+
+        JPAQuery<MemberTeamDTO> query = queryFactory
+                .select(projection)
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
-                .fetch();
-    }
+                .orderBy(member.id.asc())
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true);
+        // 커서를 닫을 때까지(Stream.close) 걸린 시간과 읽은 row 수를 기록한다
+        QueryMetrics.Timer timer = queryMetrics.start(metricName("MemberJPARepository.stream", condition), query);
+        ScrollableResults results = query
+                .createQuery()
+                .unwrap(org.hibernate.query.Query.class)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        int[] rows = new int[1];
 
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.username.eq(username);
-    }
-    private BooleanExpression teamNameEq(String teamName) {
-        return isEmpty(teamName) ? null : team.name.eq(teamName);
-    }
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe == null ? null : member.age.goe(ageGoe);
-    }
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe == null ? null : member.age.loe(ageLoe);
+        Iterator<MemberTeamDTO> iterator = new Iterator<>() {
+            private boolean advanced;
+            private boolean hasRow;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    hasRow = results.next();
+                    advanced = true;
+                }
+                return hasRow;
+            }
+
+            @Override
+            public MemberTeamDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                rows[0]++;
+                return projection.newInstance(results.get());
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    results.close();
+                    timer.stop(rows[0]);
+                });
     }
 
     public List<Member> findMember(MemberSearchCondition condition) {
-        return queryFactory
+        if (!searchable(condition)) {
+            return new ArrayList<>();
+        }
+        return queryMetrics.fetch(metricName("MemberJPARepository.findMember", condition), queryFactory
                 .selectFrom(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+                        ageLoe(condition.getAgeLoe())));
+    }
+
+    /**
+     * findMember 의 읽기 전용 버전 (ReadOnlyQuery)
+     */
+    @Transactional(readOnly = true)
+    public List<Member> findMemberReadOnly(MemberSearchCondition condition) {
+        if (!searchable(condition)) {
+            return new ArrayList<>();
+        }
+        return queryMetrics.fetch(metricName("MemberJPARepository.findMemberReadOnly", condition), readOnly(queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))));
+    }
+
+    /**
+     * 검색 진입점 공통 처리
+     * 조회하지 않아도 결과가 없는 조건이면 false 를 반환하고, 아니면 조건 조합을 인덱스 추천(MemberIndexAdvisor)에 기록한다.
+     */
+    private boolean searchable(MemberSearchCondition condition) {
+        if (matchesNothing(condition)) {
+            return false;
+        }
+        indexAdvisor.record(condition);
+        return true;
     }
 
 }
@@ -0,0 +1,66 @@
+package study.querydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberDTO;
+import study.querydsl.dto.MemberDTORowMapper;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.MemberTeamDTORowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+import static study.querydsl.repository.MemberPredicates.matchesNothing;
+
+/**
+ * JPA 를 거치지 않고 JDBC ResultSet 을 DTO 로 바로 매핑하는 조회
+ * 엔티티 하이드레이션, Querydsl 프로젝션의 Object[] 튜플과 리플렉션 없이 @JdbcProjection 으로 생성된 RowMapper 를 사용한다.
+ * 컬럼 순서는 DTO 생성자 파라미터 순서와 같아야 한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        if (matchesNothing(condition)) {
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder(
+                "select m.id, m.username, m.age, t.id, t.name"
+                        + " from member m left outer join team t on m.team_id = t.id"
+                        + " where 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+
+        if (!isEmpty(condition.getUsername())) {
+            sql.append(" and m.username = :username");
+            params.addValue("username", condition.getUsername());
+        }
+        if (!isEmpty(condition.getTeamName())) {
+            sql.append(" and t.name = :teamName");
+            params.addValue("teamName", condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            sql.append(" and m.age >= :ageGoe");
+            params.addValue("ageGoe", condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            sql.append(" and m.age <= :ageLoe");
+            params.addValue("ageLoe", condition.getAgeLoe());
+        }
+
+        return jdbcTemplate.query(sql.toString(), params, MemberTeamDTORowMapper.INSTANCE);
+    }
+
+    public List<MemberDTO> findMemberDTOs(int limit) {
+        return jdbcTemplate.query(
+                "select m.username, m.age from member m limit :limit",
+                new MapSqlParameterSource("limit", limit),
+                MemberDTORowMapper.INSTANCE);
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchKey;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 검색 조건(MemberSearchCondition) 각 항목의 where 조건
+ * 값이 없으면 null 을 반환하므로 where(...) 에 그대로 넘기면 조건이 생략된다.
+ * teamNameEq 는 team 별칭을 사용하므로 member.team 을 team 으로 join 한 쿼리에서만 사용한다.
+ * 검색 메서드는 쿼리를 만들기 전에 matchesNothing 으로 결과가 없을 수밖에 없는 조건을 걸러서 DB 를 조회하지 않는다.
+ */
+public final class MemberPredicates {
+
+    private MemberPredicates() {
+    }
+
+    /**
+     * ageGoe > ageLoe 처럼 어떤 회원도 만족할 수 없는 조건
+     */
+    public static boolean matchesNothing(MemberSearchCondition condition) {
+        return MemberSearchKey.of(condition).matchesNothing();
+    }
+
+    public static BooleanExpression usernameEq(String username) {
+        return isEmpty(username) ? null : member.username.eq(username);
+    }
+
+    public static BooleanExpression teamNameEq(String teamName) {
+        return isEmpty(teamName) ? null : team.name.eq(teamName);
+    }
+
+    public static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe == null ? null : member.age.goe(ageGoe);
+    }
+
+    public static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe == null ? null : member.age.loe(ageLoe);
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import study.querydsl.dto.MemberCursorPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+
+import java.util.List;
+
+/**
+ * 회원 검색 결과를 Flux 로 반환
+ * JPA 는 blocking 이므로 쿼리는 boundedElastic 스레드에서 실행하고, 요청 스레드(서블릿 스레드)는 바로 반환된다.
+ * 결과는 키셋 페이징(searchAfter)으로 chunk-size 건씩 구독자가 요청할 때만 조회하므로,
+ * 느린 클라이언트 때문에 전체 결과를 메모리에 쌓거나 커넥션/트랜잭션을 붙잡아 두지 않는다.
+ */
+@Component
+public class MemberReactiveSearch {
+
+    private final MemberRepository memberRepository;
+    private final int chunkSize;
+    private final Scheduler scheduler = Schedulers.boundedElastic();
+
+    public MemberReactiveSearch(MemberRepository memberRepository,
+                                @Value("${member.search.reactive.chunk-size:100}") int chunkSize) {
+        this.memberRepository = memberRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    public Flux<MemberTeamDTO> search(MemberSearchCondition condition) {
+        return Flux.<List<MemberTeamDTO>, Cursor>generate(() -> new Cursor(null), (cursor, sink) -> {
+                    MemberCursorPage page = MemberCursorPage.of(
+                            memberRepository.searchAfter(condition, cursor.value(), chunkSize));
+                    if (!page.getContent().isEmpty()) {
+                        sink.next(page.getContent());
+                    }
+                    if (!page.isHasNext()) {
+                        sink.complete();
+                    }
+                    return new Cursor(page.getNextCursor());
+                })
+                // 요청(request)도 같은 스레드에서 처리되므로 조회는 항상 boundedElastic 에서 실행된다
+                .subscribeOn(scheduler)
+                // 다음 chunk 는 현재 chunk 를 모두 내보낸 뒤에 조회
+                .concatMapIterable(chunk -> chunk, 1);
+    }
+
+    /**
+     * generate 의 상태는 null 일 수 없으므로 첫 페이지(null 커서)를 감싼다.
+     */
+    private record Cursor(String value) {
+    }
+}
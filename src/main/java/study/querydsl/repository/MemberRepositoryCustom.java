@@ -2,7 +2,9 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDTO;
 
 import java.util.List;
@@ -11,6 +13,10 @@ public interface MemberRepositoryCustom {
 
     List<MemberTeamDTO> search(MemberSearchCondition condition);
 
+    MemberTeamColumns searchColumns(MemberSearchCondition condition);
+
+    List<MemberTeamDTO> searchWithCachedTeam(MemberSearchCondition condition);
+
     Page<MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
     Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
@@ -19,4 +25,15 @@ public interface MemberRepositoryCustom {
 
     Page<MemberTeamDTO> searchPageCountQuery(MemberSearchCondition condition, Pageable pageable);
 
+    Page<MemberTeamDTO> searchPageParallel(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * HAS_NEXT 는 전체 건수 없이 Slice 를, 나머지 전략은 Page 를 반환한다.
+     */
+    Slice<MemberTeamDTO> searchPage(MemberSearchCondition condition, Pageable pageable, CountStrategy countStrategy);
+
+    Slice<MemberTeamDTO> searchAfter(MemberSearchCondition condition, String cursor, int size);
+
+    List<MemberTeamDTO> searchByUsername(String keyword, UsernameMatch match, MemberSearchCondition condition);
+
 }
@@ -1,57 +1,205 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberCursor;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchKey;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
-import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.metrics.MemberIndexAdvisor;
+import study.querydsl.metrics.QueryMetrics;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.springframework.util.ObjectUtils.isEmpty;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberPredicates.ageGoe;
+import static study.querydsl.repository.MemberPredicates.ageLoe;
+import static study.querydsl.repository.MemberPredicates.matchesNothing;
+import static study.querydsl.repository.MemberPredicates.teamNameEq;
+import static study.querydsl.repository.MemberPredicates.usernameEq;
+import static study.querydsl.repository.MemberSearchQueryCache.metricName;
 
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    static final int MAX_USERNAME_INDEX_CANDIDATES = 1000;
+    static final int COLUMNS_FETCH_SIZE = 1000;
+
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberCountCache countCache;
+    private final MemberCountQueryBuilder countQueryBuilder;
+    private final MemberSearchQueryCache searchQueryCache;
+    private final ParallelPageExecutor parallelPageExecutor;
+    private final QueryMetrics queryMetrics;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate estimateTransaction;
+    private final ObjectProvider<UsernameIndex> usernameIndex;
+    private final MemberIndexAdvisor indexAdvisor;
+    private final ObjectProvider<InMemoryMemberSearch> inMemorySearch;
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, MemberCountCache countCache, MemberSearchQueryCache searchQueryCache,
+                                ParallelPageExecutor parallelPageExecutor, QueryMetrics queryMetrics,
+                                PlatformTransactionManager transactionManager, ObjectProvider<UsernameIndex> usernameIndex,
+                                MemberIndexAdvisor indexAdvisor, ObjectProvider<InMemoryMemberSearch> inMemorySearch) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countCache = countCache;
+        this.searchQueryCache = searchQueryCache;
+        this.parallelPageExecutor = parallelPageExecutor;
+        this.queryMetrics = queryMetrics;
+        this.countQueryBuilder = new MemberCountQueryBuilder(queryFactory);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.estimateTransaction = new TransactionTemplate(transactionManager);
+        this.estimateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.estimateTransaction.setReadOnly(true);
+        this.usernameIndex = usernameIndex;
+        this.indexAdvisor = indexAdvisor;
+        this.inMemorySearch = inMemorySearch;
     }
 
+    /**
+     * 조건 조합별로 미리 직렬화해 둔 쿼리 템플릿에 파라미터만 바인딩해서 조회
+     * member.search.backend=memory 이면 DB 대신 메모리 검색(InMemoryMemberSearch)을 사용한다.
+     */
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDTO> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDTO(
-                        member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name
-                )).from(member)
+        if (!searchable(condition)) {
+            return new ArrayList<>();
+        }
+        InMemoryMemberSearch memorySearch = inMemorySearch.getIfAvailable();
+        if (memorySearch != null) {
+            return memorySearch.search(condition);
+        }
+        return searchQueryCache.search(condition);
+    }
+
+    /**
+     * 검색 결과를 컬럼 단위 컨테이너로 조회
+     * Querydsl 프로젝션(DTO 생성)도, 결과 List 도 거치지 않고 forward-only 커서로 읽은 Object[] row 를 바로 컬럼 배열에 옮겨 담는다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MemberTeamColumns searchColumns(MemberSearchCondition condition) {
+        if (!searchable(condition)) {
+            return MemberTeamColumns.builder().build();
+        }
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.id, member.username, member.age, team.id, team.name)
+                .from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
-                .fetch();
+                .setHint(QueryHints.FETCH_SIZE, COLUMNS_FETCH_SIZE);
+        QueryMetrics.Timer timer = queryMetrics.start(metricName("MemberRepository.searchColumns", condition), query);
+        MemberTeamColumns columns = readColumns(query
+                .createQuery()
+                .unwrap(org.hibernate.query.Query.class)
+                .scroll(ScrollMode.FORWARD_ONLY));
+        timer.stop(columns.size());
+        return columns;
+    }
+
+    /**
+     * 커서에서 한 row 씩 읽어서 바로 컬럼에 추가한다. 다음 row 를 읽기 전에 현재 row 를 옮겨 담으므로 row 를 모아 두지 않는다.
+     */
+    static MemberTeamColumns readColumns(ScrollableResults rows) {
+        try (rows) {
+            MemberTeamColumns.Builder builder = MemberTeamColumns.builder();
+            while (rows.next()) {
+                Object[] columns = rows.get();
+                builder.add((Long) columns[0], (String) columns[1], (Integer) columns[2], (Long) columns[3], (String) columns[4]);
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * team 을 join 하지 않고 회원의 FK(team_id) 만 조회한 뒤, 팀 정보는 2차 캐시에서 채운다.
+     * teamName 조건은 캐시된 쿼리로 팀 id 를 먼저 찾아서 FK 조건으로 바꾼다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<MemberTeamDTO> searchWithCachedTeam(MemberSearchCondition condition) {
+        if (!searchable(condition)) {
+            return new ArrayList<>();
+        }
+        List<Long> teamIds = null;
+        if (!isEmpty(condition.getTeamName())) {
+            teamIds = queryFactory
+                    .select(team.id)
+                    .from(team)
+                    .where(team.name.eq(condition.getTeamName()))
+                    .setHint(QueryHints.CACHEABLE, true)
+                    .fetch();
+            if (teamIds.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+
+        List<Tuple> rows = queryMetrics.fetch(metricName("MemberRepository.searchWithCachedTeam", condition), queryFactory
+                .select(member.id, member.username, member.age, member.team.id)
+                .from(member)
+                .where(teamIds == null ? null : member.team.id.in(teamIds),
+                        usernameEq(condition.getUsername()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())));
+
+        List<MemberTeamDTO> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Long teamId = row.get(member.team.id);
+            Team findTeam = teamId == null ? null : em.find(Team.class, teamId);
+            result.add(new MemberTeamDTO(
+                    row.get(member.id),
+                    row.get(member.username),
+                    row.get(member.age),
+                    teamId,
+                    findTeam == null ? null : findTeam.getName()));
+        }
+        return result;
     }
 
     /**
      * 단순한 페이징, fetchResults() 사용
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDTO> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDTO> results = queryFactory
+        if (!searchable(condition)) {
+            return Page.empty(pageable);
+        }
+        QueryResults<MemberTeamDTO> results = queryMetrics.fetchResults(
+                metricName("MemberRepository.searchPageSimple", condition), queryFactory
                 .select(new QMemberTeamDTO(
                         member.id,
                         member.username,
@@ -65,8 +213,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
+                .limit(pageable.getPageSize()));
 
         List<MemberTeamDTO> content = results.getResults();
 
@@ -79,8 +226,12 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
      * 데이터 조회 쿼리와 전체 카운트 쿼리를 분리
      */
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDTO> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDTO> content = queryFactory
+        if (!searchable(condition)) {
+            return Page.empty(pageable);
+        }
+        List<MemberTeamDTO> content = queryMetrics.fetch(metricName("MemberRepository.searchPageComplex", condition), queryFactory
                 .select(new QMemberTeamDTO(
                         member.id,
                         member.username,
@@ -94,25 +245,20 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize()));
 
-        long total = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetchCount();
+        long total = countQuery(condition);
 
         return new PageImpl<>(content, pageable, total);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDTO> searchPageComplex2(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDTO> content = queryFactory
+        if (!searchable(condition)) {
+            return Page.empty(pageable);
+        }
+        List<MemberTeamDTO> content = queryMetrics.fetch(metricName("MemberRepository.searchPageComplex2", condition), queryFactory
                 .select(new QMemberTeamDTO(
                         member.id.as("memberId"),
                         member.username,
@@ -127,26 +273,18 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageLoe(condition.getAgeLoe())
                 )
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize()));
 
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
-
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery(condition));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDTO> searchPageCountQuery(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDTO> content = queryFactory
+        if (!searchable(condition)) {
+            return Page.empty(pageable);
+        }
+        List<MemberTeamDTO> content = queryMetrics.fetch(metricName("MemberRepository.searchPageCountQuery", condition), queryFactory
                 .select(new QMemberTeamDTO(
                         member.id,
                         member.username,
@@ -160,37 +298,214 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()))
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize()));
 
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
-                .from(member)
+        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery(condition));
+    }
+
+    /**
+     * content 쿼리와 count 쿼리를 별도 커넥션에서 동시에 실행하는 페이징
+     * 트랜잭션 안에서 호출하면 순차 실행한다.
+     * 두 쿼리가 각자의 스레드에서 읽기 전용 트랜잭션으로 실행되므로 replica 라우팅 대상이 된다.
+     */
+    @Override
+    public Page<MemberTeamDTO> searchPageParallel(MemberSearchCondition condition, Pageable pageable) {
+        if (!searchable(condition)) {
+            return Page.empty(pageable);
+        }
+        return parallelPageExecutor.getPage(
+                () -> readOnlyTransaction.execute(status -> queryMetrics.fetch(metricName("MemberRepository.searchPageParallel", condition),
+                        contentQuery(condition)
+                                .offset(pageable.getOffset())
+                                .limit(pageable.getPageSize()))),
+                pageable,
+                () -> readOnlyTransaction.execute(status -> countQuery(condition)));
+    }
+
+    /**
+     * 카운트 전략을 선택할 수 있는 페이징
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MemberTeamDTO> searchPage(MemberSearchCondition condition, Pageable pageable, CountStrategy countStrategy) {
+        if (!searchable(condition)) {
+            return Page.empty(pageable);
+        }
+        if (countStrategy == CountStrategy.HAS_NEXT) {
+            return searchPageHasNext(condition, pageable);
+        }
+
+        List<MemberTeamDTO> content = queryMetrics.fetch(metricName("MemberRepository.searchPage", condition), contentQuery(condition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize()));
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(condition, countStrategy));
+    }
+
+    /**
+     * count 쿼리 없이 limit + 1 건을 조회
+     * 전체 건수는 알 수 없으므로 Page 가 아닌 Slice 로 다음 페이지 존재 여부만 알려준다.
+     */
+    private Slice<MemberTeamDTO> searchPageHasNext(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDTO> content = queryMetrics.fetch(metricName("MemberRepository.searchPageHasNext", condition), contentQuery(condition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize() + 1L));
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private long count(MemberSearchCondition condition, CountStrategy countStrategy) {
+        switch (countStrategy) {
+            case CACHED:
+                return countCache.get(condition, () -> countQuery(condition));
+            case APPROXIMATE:
+                if (!hasPredicate(condition)) {
+                    Long estimated = estimatedMemberCount();
+                    if (estimated != null) {
+                        return estimated;
+                    }
+                }
+                return countCache.get(condition, () -> countQuery(condition));
+            default:
+                return countQuery(condition);
+        }
+    }
+
+    /**
+     * H2 통계 정보의 추정 row 수
+     * member 에서 team 으로의 left join 은 row 수를 바꾸지 않으므로 조건이 없을 때는 member 테이블 row 수와 같다.
+     * 통계를 조회할 수 없는 DB 라면 null 을 반환하고 캐시된 count 를 사용한다.
+     * 실패한 native 쿼리가 호출한 쪽 트랜잭션을 rollback-only 로 만들지 않도록 별도 트랜잭션(REQUIRES_NEW)에서 실행한다.
+     */
+    private Long estimatedMemberCount() {
+        try {
+            return estimateTransaction.execute(status -> {
+                Object result = em.createNativeQuery("select row_count_estimate from information_schema.tables"
+                                + " where table_schema = schema() and table_name = 'MEMBER'")
+                        .getSingleResult();
+                return result == null ? null : ((Number) result).longValue();
+            });
+        } catch (PersistenceException e) {
+            return null;
+        }
+    }
+
+    private JPAQuery<MemberTeamDTO> contentQuery(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                )).from(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()));
-
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
     }
 
+    private long countQuery(MemberSearchCondition condition) {
+        return queryMetrics.fetchCount(metricName("MemberRepository.count", condition),
+                countQueryBuilder.build(condition).getQuery());
+    }
 
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.username.eq(username);
+    private boolean hasPredicate(MemberSearchCondition condition) {
+        return MemberSearchKey.of(condition).hasPredicate();
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return isEmpty(teamName) ? null : team.name.eq(teamName);
+    /**
+     * 검색 진입점 공통 처리
+     * 조회하지 않아도 결과가 없는 조건이면 false 를 반환하고, 아니면 조건 조합을 인덱스 추천(MemberIndexAdvisor)에 기록한다.
+     */
+    private boolean searchable(MemberSearchCondition condition) {
+        if (matchesNothing(condition)) {
+            return false;
+        }
+        indexAdvisor.record(condition);
+        return true;
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe == null ? null : member.age.goe(ageGoe);
+    /**
+     * 키셋(seek) 페이징
+     * offset 대신 마지막으로 조회한 member.id 이후부터 읽으므로 깊은 페이지도 앞의 row 를 버리지 않는다.
+     * 다음 페이지 존재 여부는 size + 1 건을 조회해서 판단하고, count 쿼리는 실행하지 않는다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MemberTeamDTO> searchAfter(MemberSearchCondition condition, String cursor, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size 는 1 이상이어야 합니다: " + size);
+        }
+        if (!searchable(condition)) {
+            return new SliceImpl<>(new ArrayList<>(), PageRequest.ofSize(size), false);
+        }
+
+        List<MemberTeamDTO> content = queryMetrics.fetch(metricName("MemberRepository.searchAfter", condition), queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                )).from(member)
+                .leftJoin(member.team, team)
+                .where(memberIdGt(MemberCursor.decode(cursor)),
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(member.id.asc())
+                .limit(size + 1L));
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = content.subList(0, size);
+        }
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe == null ? null : member.age.loe(ageLoe);
+    /**
+     * username 접두사/포함 검색
+     * UsernameIndex 가 켜져 있으면 색인에서 찾은 회원 id 로 조회하고, 꺼져 있거나 후보가 너무 많으면 like 로 조회한다.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<MemberTeamDTO> searchByUsername(String keyword, UsernameMatch match, MemberSearchCondition condition) {
+        if (!searchable(condition)) {
+            return new ArrayList<>();
+        }
+        BooleanExpression usernameLike = usernameLike(keyword, match);
+        BooleanExpression memberIdIn = null;
+
+        UsernameIndex index = usernameIndex.getIfAvailable();
+        if (usernameLike != null && index != null) {
+            Set<Long> ids = index.find(keyword, match, MAX_USERNAME_INDEX_CANDIDATES);
+            if (ids != null && ids.isEmpty()) {
+                return new ArrayList<>();
+            }
+            memberIdIn = ids == null ? null : member.id.in(ids);
+        }
+
+        // 색인 결과를 id 로 찾은 뒤에도 like 조건을 함께 걸어서, 색인에 반영되기 전의 변경으로 잘못된 row 가 섞이지 않게 한다
+        return queryMetrics.fetch(metricName("MemberRepository.searchByUsername", condition), contentQuery(condition)
+                .where(memberIdIn, usernameLike)
+                .orderBy(member.id.asc()));
     }
 
+    private BooleanExpression usernameLike(String keyword, UsernameMatch match) {
+        if (isEmpty(keyword)) {
+            return null;
+        }
+        return match == UsernameMatch.PREFIX ? member.username.startsWith(keyword) : member.username.contains(keyword);
+    }
 
-}
\ No newline at end of file
+    private BooleanExpression memberIdGt(Long lastMemberId) {
+        return lastMemberId == null ? null : member.id.gt(lastMemberId);
+    }
+}
@@ -0,0 +1,155 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchShape;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.metrics.QueryMetrics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.util.ObjectUtils.isEmpty;
+import static study.querydsl.dto.MemberSearchShape.AGE_GOE;
+import static study.querydsl.dto.MemberSearchShape.AGE_LOE;
+import static study.querydsl.dto.MemberSearchShape.TEAM_NAME;
+import static study.querydsl.dto.MemberSearchShape.USERNAME;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 동적 검색 쿼리 템플릿 캐시
+ * 조건 4개의 존재 여부 조합(16가지)마다 Querydsl 표현식을 한 번만 JPQL 로 직렬화해 두고,
+ * 이후 호출에서는 파라미터만 바인딩한다. 같은 JPQL 문자열을 재사용하므로 Hibernate 쿼리 플랜 캐시도 항상 적중한다.
+ * 같은 조합(MemberSearchShape)을 QueryMetrics 의 지표 이름에도 사용한다. (metricName)
+ */
+@Component
+public class MemberSearchQueryCache {
+
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME_PARAM = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+
+    private static final QMemberTeamDTO PROJECTION = new QMemberTeamDTO(
+            member.id,
+            member.username,
+            member.age,
+            team.id,
+            team.name);
+
+    private final EntityManager em;
+    private final QueryMetrics queryMetrics;
+    private final ConcurrentMap<Integer, SearchTemplate> templates = new ConcurrentHashMap<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public MemberSearchQueryCache(EntityManager em, QueryMetrics queryMetrics) {
+        this.em = em;
+        this.queryMetrics = queryMetrics;
+    }
+
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        return search("MemberRepository.search", condition);
+    }
+
+    /**
+     * name 은 QueryMetrics 지표 이름에 쓸 호출 위치
+     */
+    public List<MemberTeamDTO> search(String name, MemberSearchCondition condition) {
+        int shape = MemberSearchShape.of(condition);
+        SearchTemplate template = template(shape);
+
+        Query query = em.createQuery(template.jpql());
+        Map<ParamExpression<?>, Object> bindings = bindings(condition);
+        JPAUtil.setConstants(query, template.constants(), bindings);
+
+        List<?> rows = queryMetrics.fetch(metricName(name, shape),
+                () -> template.jpql() + "\nbindings=" + bindings.values(),
+                query::getResultList);
+        List<MemberTeamDTO> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(PROJECTION.newInstance((Object[]) row));
+        }
+        return result;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    private SearchTemplate template(int shape) {
+        SearchTemplate template = templates.get(shape);
+        if (template != null) {
+            hitCount.increment();
+            return template;
+        }
+        missCount.increment();
+        return templates.computeIfAbsent(shape, this::compile);
+    }
+
+    private SearchTemplate compile(int shape) {
+        JPAQuery<MemberTeamDTO> query = new JPAQuery<Void>()
+                .select(PROJECTION)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(when(shape, USERNAME, member.username.eq(USERNAME_PARAM)),
+                        when(shape, TEAM_NAME, team.name.eq(TEAM_NAME_PARAM)),
+                        when(shape, AGE_GOE, member.age.goe(AGE_GOE_PARAM)),
+                        when(shape, AGE_LOE, member.age.loe(AGE_LOE_PARAM)));
+
+        JPQLSerializer serializer = new JPQLSerializer(JPQLTemplates.DEFAULT, em);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new SearchTemplate(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    private static BooleanExpression when(int shape, int flag, BooleanExpression predicate) {
+        return (shape & flag) == 0 ? null : predicate;
+    }
+
+    /**
+     * 호출 위치 이름 뒤에 조건 조합을 붙인 지표 이름 (예: MemberRepository.search[teamName+ageGoe])
+     */
+    static String metricName(String name, MemberSearchCondition condition) {
+        return metricName(name, MemberSearchShape.of(condition));
+    }
+
+    private static String metricName(String name, int shape) {
+        return name + "[" + MemberSearchShape.name(shape) + "]";
+    }
+
+    private static Map<ParamExpression<?>, Object> bindings(MemberSearchCondition condition) {
+        Map<ParamExpression<?>, Object> params = new HashMap<>(8);
+        if (!isEmpty(condition.getUsername())) params.put(USERNAME_PARAM, condition.getUsername());
+        if (!isEmpty(condition.getTeamName())) params.put(TEAM_NAME_PARAM, condition.getTeamName());
+        if (condition.getAgeGoe() != null) params.put(AGE_GOE_PARAM, condition.getAgeGoe());
+        if (condition.getAgeLoe() != null) params.put(AGE_LOE_PARAM, condition.getAgeLoe());
+        return params;
+    }
+
+    private record SearchTemplate(String jpql, List<Object> constants) {
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.repository;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.config.ReplicaAffinity;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 페이징의 content 쿼리와 count 쿼리를 동시에 실행
+ * count 쿼리는 별도 스레드(별도 커넥션)에서 실행하므로 응답 시간이 두 쿼리의 합이 아니라 더 느린 쪽이 된다.
+ * 이미 트랜잭션 안이라면 트랜잭션 경계를 벗어나지 않도록 순차 실행한다. 스레드 풀이 가득 찬 경우도 순차 실행한다.
+ * 스레드마다 커넥션을 하나씩 쓰므로 max-pool-size 는 커넥션 풀 크기보다 작게 잡는다.
+ * count 쿼리는 content 결과를 보기 전에 시작하므로, 첫 페이지나 마지막 페이지처럼 count 가 필요 없는 경우에도 실행될 수 있다.
+ * 아직 시작하지 않은 count 는 취소되지만, 이미 실행 중인 count 는 끝날 때까지 커넥션 하나를 더 쓴다.
+ * 결과가 한 페이지에 다 들어오는 조건이 대부분이라면 이 방식 대신 순차 페이징(searchPageCountQuery)을 사용한다.
+ * 두 쿼리는 ReplicaAffinity 로 같은 replica 에서 읽는다. (replica 마다 복제 위치가 달라 content 와 count 가 어긋나지 않도록)
+ * (스레드 풀을 Executor 빈으로 등록하면 스프링 부트 기본 applicationTaskExecutor 가 빠지므로 내부에서 직접 관리한다.)
+ */
+@Component
+public class ParallelPageExecutor implements DisposableBean {
+
+    private final ThreadPoolTaskExecutor executor;
+
+    public ParallelPageExecutor(@Value("${member.search.parallel.core-pool-size:4}") int corePoolSize,
+                                @Value("${member.search.parallel.max-pool-size:8}") int maxPoolSize,
+                                @Value("${member.search.parallel.queue-capacity:100}") int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("search-count-");
+        executor.setTaskDecorator(ReplicaAffinity::wrap);
+        executor.initialize();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * count 가 필요 없다고 판단되면(PageableExecutionUtils 기준) 결과를 기다리지 않고 취소한다.
+     */
+    public <T> Page<T> getPage(Supplier<List<T>> contentQuery, Pageable pageable, LongSupplier countQuery) {
+        return ReplicaAffinity.run(() -> page(contentQuery, pageable, countQuery));
+    }
+
+    private <T> Page<T> page(Supplier<List<T>> contentQuery, Pageable pageable, LongSupplier countQuery) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PageableExecutionUtils.getPage(contentQuery.get(), pageable, countQuery);
+        }
+
+        CompletableFuture<Long> count;
+        try {
+            count = CompletableFuture.supplyAsync(countQuery::getAsLong, executor);
+        } catch (TaskRejectedException e) {
+            return PageableExecutionUtils.getPage(contentQuery.get(), pageable, countQuery);
+        }
+
+        List<T> content;
+        try {
+            content = contentQuery.get();
+        } catch (RuntimeException e) {
+            count.cancel(false);
+            throw e;
+        }
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> join(count));
+        if (!count.isDone()) {
+            count.cancel(false);
+        }
+        return page;
+    }
+
+    private static long join(CompletableFuture<Long> count) {
+        try {
+            return count.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.annotations.QueryHints;
+
+/**
+ * JPAQuery 를 읽기 전용 조회로 전환한다.
+ * 조회된 엔티티는 읽기 전용으로 영속성 컨텍스트에 올라가 스냅샷을 남기지 않고 flush 시점의 변경 감지 대상에서도 빠진다.
+ * 쿼리 실행 전 자동 flush 도 하지 않으므로(FlushMode.MANUAL), 같은 트랜잭션에서 아직 flush 되지 않은 변경은 조회 결과에 반영되지 않는다.
+ */
+public final class ReadOnlyQuery {
+
+    private ReadOnlyQuery() {
+    }
+
+    public static <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        return query
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FLUSH_MODE, FlushMode.MANUAL);
+    }
+}
@@ -0,0 +1,56 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 목록의 지연 로딩된 팀을 한 번에 로딩
+ * 아직 초기화되지 않은 Member.team 프록시의 id 를 모아서 where team.id in (...) 쿼리 한 번으로 조회한다.
+ * 조회된 Team 은 같은 영속성 컨텍스트에 올라가므로, 이후 member.getTeam().getName() 은 추가 쿼리 없이 동작한다.
+ * 트랜잭션(영속성 컨텍스트) 안에서 호출해야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamBatchLoader {
+
+    public static final int MAX_IN_SIZE = 1000;
+
+    private final JPAQueryFactory queryFactory;
+
+    /**
+     * @return 새로 로딩한 팀
+     */
+    public List<Team> loadTeams(Collection<Member> members) {
+        Set<Long> pendingIds = new LinkedHashSet<>();
+        for (Member member : members) {
+            Team memberTeam = member.getTeam();
+            if (memberTeam instanceof HibernateProxy && !Hibernate.isInitialized(memberTeam)) {
+                pendingIds.add((Long) ((HibernateProxy) memberTeam).getHibernateLazyInitializer().getIdentifier());
+            }
+        }
+
+        List<Team> loaded = new ArrayList<>(pendingIds.size());
+        List<Long> ids = new ArrayList<>(pendingIds);
+        for (int from = 0; from < ids.size(); from += MAX_IN_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IN_SIZE, ids.size()));
+            loaded.addAll(queryFactory
+                    .selectFrom(team)
+                    .where(team.id.in(chunk))
+                    .fetch());
+        }
+        return loaded;
+    }
+}
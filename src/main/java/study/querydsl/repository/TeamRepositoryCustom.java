@@ -0,0 +1,15 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.entity.Team;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+
+    List<Team> findAllWithMembers(Collection<Long> teamIds);
+
+    Page<Team> findPageWithMembers(Pageable pageable);
+}
@@ -0,0 +1,85 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QTeam.team;
+
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    public TeamRepositoryImpl(EntityManager em) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    /**
+     * 팀과 소속 회원을 "Team.members" 엔티티 그래프로 쿼리 한 번에 조회
+     * 결과는 teamIds 순서를 따른다.
+     * distinct 는 팀 x 회원 row 에서 중복된 팀 엔티티를 메모리에서 제거하기 위한 것이므로 SQL 에는 넘기지 않는다. (PASS_DISTINCT_THROUGH)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Team> findAllWithMembers(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Team> teams = queryFactory
+                .selectFrom(team)
+                .distinct()
+                .where(team.id.in(teamIds))
+                .setHint(FETCH_GRAPH, em.getEntityGraph(Team.MEMBERS_GRAPH))
+                .setHint(QueryHints.PASS_DISTINCT_THROUGH, false)
+                .fetch();
+
+        Map<Long, Team> byId = new HashMap<>();
+        teams.forEach(t -> byId.put(t.getId(), t));
+        List<Team> result = new ArrayList<>(teams.size());
+        for (Long teamId : teamIds) {
+            Team findTeam = byId.remove(teamId);
+            if (findTeam != null) {
+                result.add(findTeam);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 팀 페이지와 소속 회원 조회 (팀 id 순)
+     * 컬렉션을 fetch join 한 채로 페이징하면 팀 x 회원 row 전체를 메모리에서 페이징하므로,
+     * 먼저 팀 id 만 페이징한 뒤 해당 팀들을 엔티티 그래프로 조회한다. (id 쿼리 + 그래프 쿼리 + count 쿼리)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Team> findPageWithMembers(Pageable pageable) {
+        List<Long> teamIds = queryFactory
+                .select(team.id)
+                .from(team)
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        return PageableExecutionUtils.getPage(findAllWithMembers(teamIds), pageable, () -> queryFactory
+                .select(team.count())
+                .from(team)
+                .fetchOne());
+    }
+}
@@ -0,0 +1,192 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeBucketStatisticsDTO;
+import study.querydsl.dto.TeamStatisticsDTO;
+import study.querydsl.entity.TeamSummary;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.entity.QTeamSummary.teamSummary;
+
+/**
+ * 팀별 회원 통계
+ * 엔티티를 조회하지 않고 count/sum/min/max 를 DB 에서 group by 로 계산한다.
+ * 대시보드처럼 자주 읽는 경우에는 팀 수만큼만 읽으면 되는 요약 테이블(TeamSummary)을 사용한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TeamStatisticsRepository {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    public List<TeamStatisticsDTO> findTeamStatistics() {
+        return toTeamStatistics(teamStatisticsTuples(null));
+    }
+
+    /**
+     * 팀별 나이 구간 분포
+     * 구간 시작값(ageFrom = floor(age / bucketSize) * bucketSize)을 CASE 식으로 계산해서 DB 에서 팀, 구간별로 집계한다. (최대 팀 수 x 구간 수 row)
+     * 같은 식을 select 와 group by 에 쓰므로 bucketSize 는 바인딩 파라미터가 아닌 리터럴로 넣는다. (검증된 int 값)
+     */
+    public List<AgeBucketStatisticsDTO> findAgeBucketStatistics(int bucketSize) {
+        if (bucketSize < 1) {
+            throw new IllegalArgumentException("bucketSize 는 1 이상이어야 합니다: " + bucketSize);
+        }
+
+        NumberExpression<Integer> size = Expressions.numberTemplate(Integer.class, Integer.toString(bucketSize));
+        NumberExpression<Integer> remainder = member.age.mod(size);
+        // 음수 나이는 mod 가 음수이므로 한 구간 내린다 (floorDiv)
+        NumberExpression<Integer> ageFrom = new CaseBuilder()
+                .when(remainder.lt(Expressions.numberTemplate(Integer.class, "0")))
+                .then(member.age.subtract(remainder).subtract(size))
+                .otherwise(member.age.subtract(remainder));
+
+        List<Tuple> rows = queryFactory
+                .select(team.name, ageFrom, member.count())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name, ageFrom)
+                .orderBy(team.name.asc(), ageFrom.asc())
+                .fetch();
+
+        List<AgeBucketStatisticsDTO> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            result.add(new AgeBucketStatisticsDTO(row.get(team.name), toInt(row.get(ageFrom)), bucketSize,
+                    toLong(row.get(member.count()))));
+        }
+        return result;
+    }
+
+    /**
+     * 요약 테이블에서 조회 (팀 수만큼만 읽는다)
+     */
+    public List<TeamStatisticsDTO> findTeamSummaries() {
+        List<TeamSummary> summaries = queryFactory
+                .selectFrom(teamSummary)
+                .orderBy(teamSummary.teamName.asc())
+                .fetch();
+
+        List<TeamStatisticsDTO> result = new ArrayList<>(summaries.size());
+        for (TeamSummary summary : summaries) {
+            result.add(new TeamStatisticsDTO(summary.getTeamId(), summary.getTeamName(), summary.getMemberCount(),
+                    summary.getAgeSum(), summary.getAgeMin(), summary.getAgeMax()));
+        }
+        return result;
+    }
+
+    /**
+     * 지정한 팀의 요약 row 만 다시 계산한다. 회원이 없는 팀의 row 는 삭제한다.
+     */
+    @Transactional
+    public void refreshSummaries(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+
+        Set<Long> remaining = new HashSet<>(teamIds);
+        for (Tuple row : teamStatisticsTuples(team.id.in(teamIds))) {
+            Long teamId = row.get(team.id);
+            remaining.remove(teamId);
+
+            TeamSummary summary = em.find(TeamSummary.class, teamId);
+            if (summary == null) {
+                summary = new TeamSummary(teamId);
+                em.persist(summary);
+            }
+            summary.update(row.get(team.name),
+                    toLong(row.get(member.count())),
+                    toLong(row.get(member.age.sum())),
+                    toInt(row.get(member.age.min())),
+                    toInt(row.get(member.age.max())));
+        }
+
+        if (!remaining.isEmpty()) {
+            deleteSummaries(teamSummary.teamId.in(remaining));
+        }
+    }
+
+    /**
+     * 요약 테이블 전체를 다시 계산한다. (최초 적재, bulk update/delete 이후)
+     */
+    @Transactional
+    public void rebuildSummaries() {
+        deleteSummaries(null);
+        refreshSummaries(queryFactory.select(team.id).from(team).fetch());
+    }
+
+    /**
+     * bulk delete 는 영속성 컨텍스트를 거치지 않으므로, 이미 불러온 요약 엔티티를 detach 해서
+     * 이후 em.find 가 삭제된 row 의 엔티티를 돌려주지 않게 한다. (다른 엔티티는 그대로 둔다)
+     */
+    private void deleteSummaries(BooleanExpression condition) {
+        queryFactory.delete(teamSummary).where(condition).execute();
+
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<Object> managed = new ArrayList<>();
+        for (Object entity : session.getPersistenceContext().getEntitiesByKey().values()) {
+            if (entity instanceof TeamSummary) {
+                managed.add(entity);
+            }
+        }
+        managed.forEach(em::detach);
+    }
+
+    private List<Tuple> teamStatisticsTuples(BooleanExpression teamCondition) {
+        return queryFactory
+                .select(team.id,
+                        team.name,
+                        member.count(),
+                        member.age.sum(),
+                        member.age.min(),
+                        member.age.max())
+                .from(member)
+                .join(member.team, team)
+                .where(teamCondition)
+                .groupBy(team.id, team.name)
+                .orderBy(team.name.asc())
+                .fetch();
+    }
+
+    private List<TeamStatisticsDTO> toTeamStatistics(List<Tuple> rows) {
+        List<TeamStatisticsDTO> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            result.add(new TeamStatisticsDTO(
+                    row.get(team.id),
+                    row.get(team.name),
+                    toLong(row.get(member.count())),
+                    toLong(row.get(member.age.sum())),
+                    toInt(row.get(member.age.min())),
+                    toInt(row.get(member.age.max()))));
+        }
+        return result;
+    }
+
+    /**
+     * JPQL sum 은 DB/방언에 따라 Integer 또는 Long 으로 반환되므로 Number 로 받아서 변환
+     */
+    private static long toLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private static int toInt(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * 회원 insert/update/delete 와 팀 update(이름 변경) 이벤트를 받아서 변경된 팀의 TeamSummary 만 다시 계산한다.
+ * 트랜잭션 안에서 변경된 팀 id 를 모아두었다가 커밋 후에 별도 트랜잭션으로 반영한다.
+ * 같은 팀의 요약 row 를 동시에 처음 만들면 PK 가 충돌할 수 있으므로 한 번 더 시도한다. (이미 만들어진 row 를 갱신)
+ * 그래도 실패하면 이미 커밋한 호출자에게 예외를 던지지 않고 로그만 남긴다. (AfterCommitBuffer)
+ * JPQL bulk update/delete 는 이벤트가 발생하지 않으므로 실행한 쪽에서 refresh(teamIds) 를 호출한다. (MemberBulkMutationService)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.statistics.summary.enabled", havingValue = "true")
+public class TeamSummaryMaintainer implements EntityChangeListener {
+
+    private static final String TEAM_PROPERTY = "team";
+
+    private final TeamStatisticsRepository teamStatisticsRepository;
+    private final TransactionTemplate refreshTransaction;
+    private final AfterCommitBuffer<Long> changedTeamIds = new AfterCommitBuffer<>("team summary", this::refresh);
+
+    public TeamSummaryMaintainer(TeamStatisticsRepository teamStatisticsRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.teamStatisticsRepository = teamStatisticsRepository;
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void onEntityChange(EntityChange change) {
+        if (change.entity() instanceof Team) {
+            // 팀 이름은 요약 row 에 복사되어 있으므로 이름이 바뀌면 다시 계산 (회원이 없는 팀은 row 가 없어 그대로다)
+            if (change.type() == EntityChange.Type.UPDATE) {
+                markChanged((Long) change.id());
+            }
+            return;
+        }
+        if (!(change.entity() instanceof Member)) {
+            return;
+        }
+        markChanged(EntityChange.teamId(change.property(TEAM_PROPERTY)));
+        // 팀을 옮긴 경우 이전 팀도 다시 계산
+        markChanged(EntityChange.teamId(change.oldProperty(TEAM_PROPERTY)));
+    }
+
+    private void markChanged(Long teamId) {
+        if (teamId != null) {
+            changedTeamIds.add(teamId);
+        }
+    }
+
+    /**
+     * 지정한 팀의 요약을 별도 트랜잭션에서 다시 계산한다.
+     */
+    public void refresh(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        log.debug("team summary refresh teamIds={}", teamIds);
+        try {
+            refreshTransaction.executeWithoutResult(status -> teamStatisticsRepository.refreshSummaries(new HashSet<>(teamIds)));
+        } catch (DataIntegrityViolationException e) {
+            log.info("team summary refresh conflict, retrying teamIds={}", teamIds);
+            refreshTransaction.executeWithoutResult(status -> teamStatisticsRepository.refreshSummaries(new HashSet<>(teamIds)));
+        }
+    }
+}
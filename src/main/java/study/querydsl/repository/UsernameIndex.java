@@ -0,0 +1,293 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * Member.username 메모리 색인
+ * 접두사 검색은 정렬된 username 맵의 범위로, 포함 검색은 3-gram 역색인의 교집합으로 후보 회원 id 를 찾는다.
+ * 회원 insert/update/delete 는 커밋 후에 반영되므로 현재 트랜잭션에서 아직 커밋하지 않은 변경은 검색되지 않는다.
+ * MemberBulkWriter 로 대량 저장한 트랜잭션은 회원마다 변경을 모으지 않고 커밋 후 rebuild() 한 번으로 반영한다.
+ * JPQL bulk update/delete 는 이벤트가 발생하지 않으므로 refresh(ids) 또는 rebuild() 로 다시 반영해야 한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.username-index.enabled", havingValue = "true")
+public class UsernameIndex implements EntityChangeListener {
+
+    private static final int GRAM = 3;
+    private static final UsernameChange REBUILD = new UsernameChange(null, null);
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AfterCommitBuffer<UsernameChange> pending = new AfterCommitBuffer<>("username index", this::apply);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> usernames = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> idsByUsername = new TreeMap<>();
+    private final Map<String, Set<Long>> idsByGram = new HashMap<>();
+    /**
+     * rebuild() 가 DB 를 읽는 동안 반영된 변경. 읽은 스냅샷으로 교체한 뒤 다시 반영해서 그 사이 커밋된 변경을 잃지 않는다.
+     */
+    private List<UsernameChange> changesDuringRebuild;
+
+    public UsernameIndex(JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // 커밋 후(afterCommit)에 호출되어도 끝난 트랜잭션에 참여하지 않도록 새 트랜잭션에서 읽는다
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 애플리케이션 시작 시 DB 의 전체 회원으로 색인을 만든다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Tuple> rows;
+        try {
+            rows = readOnlyTransaction.execute(status -> queryFactory
+                    .select(member.id, member.username)
+                    .from(member)
+                    .fetch());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            changesDuringRebuild = null;
+            lock.writeLock().unlock();
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            usernames.clear();
+            idsByUsername.clear();
+            idsByGram.clear();
+            for (Tuple row : rows) {
+                put(row.get(member.id), row.get(member.username));
+            }
+            changesDuringRebuild.forEach(this::applyChange);
+        } finally {
+            changesDuringRebuild = null;
+            lock.writeLock().unlock();
+        }
+        log.info("username index rebuilt members={}", rows.size());
+    }
+
+    /**
+     * 지정한 회원만 DB 에서 다시 읽어서 반영한다. (bulk 연산 이후)
+     */
+    public void refresh(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Tuple> rows = readOnlyTransaction.execute(status -> queryFactory
+                .select(member.id, member.username)
+                .from(member)
+                .where(member.id.in(ids))
+                .fetch());
+
+        List<UsernameChange> changes = new ArrayList<>();
+        ids.forEach(id -> changes.add(new UsernameChange(id, null)));
+        rows.forEach(row -> changes.add(new UsernameChange(row.get(member.id), row.get(member.username))));
+        apply(changes);
+    }
+
+    /**
+     * keyword 와 일치하는 회원 id
+     * 후보가 maxCandidates 를 넘으면 id 조건이 오히려 느리므로 null 을 반환한다.
+     */
+    public Set<Long> find(String keyword, UsernameMatch match, int maxCandidates) {
+        lock.readLock().lock();
+        try {
+            return match == UsernameMatch.PREFIX
+                    ? findByPrefix(keyword, maxCandidates)
+                    : findByContains(keyword, maxCandidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return usernames.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 정렬된 username 에서 prefix 이상인 첫 키부터 읽고, prefix 로 시작하지 않는 키를 만나면 멈춘다.
+     * (prefix + Character.MAX_VALUE 를 상한으로 쓰면 prefix 바로 뒤에 U+FFFF 가 오는 username 을 놓친다)
+     */
+    private Set<Long> findByPrefix(String prefix, int maxCandidates) {
+        Set<Long> result = new HashSet<>();
+        for (Map.Entry<String, Set<Long>> entry : idsByUsername.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            result.addAll(entry.getValue());
+            if (result.size() > maxCandidates) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private Set<Long> findByContains(String keyword, int maxCandidates) {
+        if (keyword.length() < GRAM) {
+            // 3-gram 보다 짧으면 username 종류만큼 비교
+            Set<Long> result = new HashSet<>();
+            for (Map.Entry<String, Set<Long>> entry : idsByUsername.entrySet()) {
+                if (entry.getKey().contains(keyword)) {
+                    result.addAll(entry.getValue());
+                    if (result.size() > maxCandidates) {
+                        return null;
+                    }
+                }
+            }
+            return result;
+        }
+
+        List<Set<Long>> postings = new ArrayList<>();
+        for (String gram : grams(keyword)) {
+            Set<Long> ids = idsByGram.get(gram);
+            if (ids == null) {
+                return new HashSet<>();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        // 가장 작은 목록부터 교집합을 구하고, gram 순서까지 맞는지 실제 username 으로 확인
+        Set<Long> result = new HashSet<>();
+        for (Long id : postings.get(0)) {
+            if (containsAll(postings, id) && usernames.get(id).contains(keyword)) {
+                result.add(id);
+                if (result.size() > maxCandidates) {
+                    return null;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsAll(List<Set<Long>> postings, Long id) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 회원 변경은 커밋 후에 반영한다. (username 이 null 이면 삭제)
+     */
+    @Override
+    public void onEntityChange(EntityChange change) {
+        if (change.entity() instanceof Member) {
+            if (MemberBulkWriter.isBulkInsert()) {
+                pending.add(REBUILD);
+                return;
+            }
+            String username = change.isDelete() ? null : ((Member) change.entity()).getUsername();
+            pending.add(new UsernameChange((Long) change.id(), username));
+        }
+    }
+
+    private void apply(List<UsernameChange> changes) {
+        if (changes.contains(REBUILD)) {
+            // 대량 저장 이후에는 같은 트랜잭션의 다른 변경도 DB 에서 함께 다시 읽는다
+            rebuild();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changes.forEach(this::applyChange);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.addAll(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyChange(UsernameChange change) {
+        remove(change.id());
+        if (change.username() != null) {
+            put(change.id(), change.username());
+        }
+    }
+
+    private void put(Long id, String username) {
+        if (username == null) {
+            return;
+        }
+        usernames.put(id, username);
+        idsByUsername.computeIfAbsent(username, key -> new HashSet<>()).add(id);
+        for (String gram : grams(username)) {
+            idsByGram.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void remove(Long id) {
+        String username = usernames.remove(id);
+        if (username == null) {
+            return;
+        }
+        removePosting(idsByUsername, username, id);
+        for (String gram : grams(username)) {
+            removePosting(idsByGram, gram, id);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long id) {
+        Set<Long> ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record UsernameChange(Long id, String username) {
+    }
+}
@@ -0,0 +1,17 @@
+package study.querydsl.repository;
+
+/**
+ * username 부분 검색 방식 (대소문자 구분)
+ */
+public enum UsernameMatch {
+
+    /**
+     * username 이 keyword 로 시작
+     */
+    PREFIX,
+
+    /**
+     * username 에 keyword 가 포함
+     */
+    CONTAINS
+}
@@ -0,0 +1,175 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 로컬 H2 두 개를 primary/replica 로 사용한다.
+ * 복제는 primary 를 SCRIPT 로 내보내서 replica 에 RUNSCRIPT 로 덮어쓰는 방식으로 흉내 낸다.
+ * 다른 테스트와 2차 캐시(CacheManager)를 공유하지 않도록 2차 캐시는 끈다.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "member.datasource.routing.enabled=true",
+        "member.datasource.primary.url=" + ReplicaRoutingDataSourceTest.PRIMARY_URL,
+        "member.datasource.replicas[0].url=" + ReplicaRoutingDataSourceTest.REPLICA_URL,
+        "member.datasource.max-lag=1h",
+        "spring.jpa.open-in-view=false",
+        "member.cache.enabled=false"
+})
+class ReplicaRoutingDataSourceTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routingPrimary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routingReplica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ReplicationLagMonitor replicationLagMonitor;
+
+    @BeforeEach
+    void before() throws SQLException {
+        transactionTemplate.executeWithoutResult(status -> memberRepository.save(new Member("routing1", 10)));
+        replicate();
+        execute(REPLICA_URL, "insert into member (id, username, age) values (-1, 'replicaOnly', 10)");
+    }
+
+    @AfterEach
+    void after() throws SQLException {
+        execute(PRIMARY_URL, "delete from member");
+        execute(REPLICA_URL, "delete from member");
+    }
+
+    @Test
+    void 읽기_전용_트랜잭션은_replica_에서_조회() {
+        assertThat(usernames(memberRepository.search(new MemberSearchCondition())))
+                .containsExactlyInAnyOrder("routing1", "replicaOnly");
+
+        List<MemberTeamDTO> primaryResult = transactionTemplate.execute(status ->
+                memberRepository.search(new MemberSearchCondition()));
+        assertThat(usernames(primaryResult)).containsExactly("routing1");
+    }
+
+    @Test
+    void 쓰기_직후에는_primary_에서_조회() throws SQLException {
+        transactionTemplate.executeWithoutResult(status -> memberRepository.save(new Member("routing2", 20)));
+
+        assertThat(usernames(memberRepository.search(new MemberSearchCondition())))
+                .containsExactlyInAnyOrder("routing1", "routing2");
+
+        // 복제가 따라잡았다고 알려주면 다시 replica 에서 읽는다
+        replicate();
+        assertThat(usernames(memberRepository.search(new MemberSearchCondition())))
+                .containsExactlyInAnyOrder("routing1", "routing2");
+        execute(REPLICA_URL, "insert into member (id, username, age) values (-2, 'replicaOnly2', 10)");
+        assertThat(usernames(memberRepository.search(new MemberSearchCondition())))
+                .contains("replicaOnly2");
+    }
+
+    @Test
+    void 읽기만_한_쓰기_트랜잭션은_replica_를_막지_않음() {
+        transactionTemplate.execute(status -> memberRepository.search(new MemberSearchCondition()));
+
+        assertThat(usernames(memberRepository.search(new MemberSearchCondition()))).contains("replicaOnly");
+    }
+
+    @Test
+    void 쓰기_SQL_판별() {
+        assertThat(ReplicaRoutingDataSource.isWrite("insert into member (id) values (?)")).isTrue();
+        assertThat(ReplicaRoutingDataSource.isWrite("/* update study.querydsl.entity.Member */ update member set age=?")).isTrue();
+        assertThat(ReplicaRoutingDataSource.isWrite("select m.id from member m")).isFalse();
+        assertThat(ReplicaRoutingDataSource.isWrite("/* select ... */ select m.id from member m")).isFalse();
+    }
+
+    @Test
+    void 같은_요청의_읽기는_같은_replica_에서() {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(mock(DataSource.class),
+                List.of(mock(DataSource.class), mock(DataSource.class)), new ReplicationLagMonitor(Duration.ZERO));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            // 고정이 없으면 replica 를 번갈아 사용한다
+            assertThat(dataSource.determineCurrentLookupKey()).isNotEqualTo(dataSource.determineCurrentLookupKey());
+
+            Object[] keys = ReplicaAffinity.run(() -> {
+                Object first = dataSource.determineCurrentLookupKey();
+                Object[] other = new Object[1];
+                Thread thread = new Thread(ReplicaAffinity.wrap(() -> {
+                    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+                    other[0] = dataSource.determineCurrentLookupKey();
+                }));
+                thread.start();
+                join(thread);
+                return new Object[]{first, dataSource.determineCurrentLookupKey(), other[0]};
+            });
+            assertThat(keys[0]).isNotEqualTo(ReplicaRoutingDataSource.PRIMARY);
+            assertThat(keys).containsOnly(keys[0]);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void replicate() {
+        try {
+            Path script = Files.createTempFile("replica", ".sql");
+            try {
+                execute(PRIMARY_URL, "script to '" + script + "'");
+                execute(REPLICA_URL, "drop all objects");
+                execute(REPLICA_URL, "runscript from '" + script + "'");
+            } finally {
+                Files.deleteIfExists(script);
+            }
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        replicationLagMonitor.markReplicaCaughtUp();
+    }
+
+    private static void execute(String url, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static List<String> usernames(List<MemberTeamDTO> members) {
+        return members.stream().map(MemberTeamDTO::getUsername).toList();
+    }
+}
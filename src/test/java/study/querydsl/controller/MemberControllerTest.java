@@ -0,0 +1,34 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void 잘못된_커서는_400() throws Exception {
+        mockMvc.perform(get("/v4/members").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void 커서_페이지_크기는_제한() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(status().isOk());
+    }
+}
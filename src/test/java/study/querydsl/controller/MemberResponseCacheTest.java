@@ -0,0 +1,106 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberDataVersion;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberResponseCacheTest {
+
+    MemberDataVersion dataVersion;
+    MemberResponseCache responseCache;
+    AtomicInteger loads;
+
+    @BeforeEach
+    void before() {
+        dataVersion = new MemberDataVersion();
+        responseCache = new MemberResponseCache(dataVersion, new ObjectMapper(), 2, 3);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void 같은_조건은_데이터_버전이_바뀔_때까지_캐시() {
+        ResponseEntity<List<String>> first = responseCache.get("v1", condition("member1"), null, this::load);
+        ResponseEntity<List<String>> second = responseCache.get("v1", condition("member1"), null, this::load);
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getBody()).isEqualTo(first.getBody());
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag()).startsWith("\"");
+
+        dataVersion.increment();
+        ResponseEntity<List<String>> third = responseCache.get("v1", condition("member1"), null, this::load);
+
+        assertThat(loads).hasValue(2);
+        // 본문이 같으면 ETag 도 같으므로 클라이언트는 계속 304 를 받는다
+        assertThat(third.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+    }
+
+    @Test
+    void 빈_문자열_조건은_null_과_같은_키() {
+        responseCache.get("v1", condition(""), null, this::load);
+        responseCache.get("v1", condition(null), null, this::load);
+        responseCache.get("v2", condition(null), null, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void 최대_크기를_넘으면_오래된_응답부터_제거() {
+        responseCache.get("v1", condition("member1"), null, this::load);
+        responseCache.get("v1", condition("member2"), null, this::load);
+        responseCache.get("v1", condition("member1"), null, this::load);
+        responseCache.get("v1", condition("member3"), null, this::load);
+        assertThat(loads).hasValue(3);
+
+        responseCache.get("v1", condition("member1"), null, this::load);
+        assertThat(loads).hasValue(3);
+        responseCache.get("v1", condition("member2"), null, this::load);
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void 캐시된_row_수가_최대를_넘으면_오래된_응답부터_제거() {
+        responseCache.get("v1", condition("member1"), null, () -> load(2));
+        responseCache.get("v1", condition("member2"), null, () -> load(2));
+        assertThat(loads).hasValue(2);
+
+        // member2 를 넣으면서 row 수가 3 을 넘었으므로 member1 이 제거되었다
+        responseCache.get("v1", condition("member2"), null, () -> load(2));
+        assertThat(loads).hasValue(2);
+        responseCache.get("v1", condition("member1"), null, () -> load(2));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void 최대_row_수보다_큰_응답은_캐시하지_않음() {
+        responseCache.get("v1", condition("member1"), null, () -> load(4));
+        ResponseEntity<List<String>> second = responseCache.get("v1", condition("member1"), null, () -> load(4));
+
+        assertThat(loads).hasValue(2);
+        assertThat(second.getHeaders().getETag()).isNotNull();
+    }
+
+    private List<String> load(int rows) {
+        loads.incrementAndGet();
+        return Collections.nCopies(rows, "member");
+    }
+
+    private List<String> load() {
+        loads.incrementAndGet();
+        return List.of("member");
+    }
+
+    private static MemberSearchCondition condition(String username) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        return condition;
+    }
+}
@@ -0,0 +1,49 @@
+package study.querydsl.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSearchKeyTest {
+
+    @Test
+    void 같은_의미의_조건은_같은_키() {
+        MemberSearchKey key = MemberSearchKey.of(condition("member1", "teamA", 10, 20));
+
+        assertThat(MemberSearchKey.of(condition(" member1", "teamA ", 10, 20))).isEqualTo(key);
+        assertThat(MemberSearchKey.of(condition("", " ", null, null))).isEqualTo(MemberSearchKey.ALL);
+        assertThat(MemberSearchKey.of(condition(null, null, Integer.MIN_VALUE, Integer.MAX_VALUE)))
+                .isEqualTo(MemberSearchKey.ALL);
+        assertThat(MemberSearchKey.ALL.hasPredicate()).isFalse();
+        assertThat(key.hasPredicate()).isTrue();
+    }
+
+    @Test
+    void 만족할_수_없는_범위는_NONE() {
+        MemberSearchKey key = MemberSearchKey.of(condition("member1", null, 30, 20));
+
+        assertThat(key).isEqualTo(MemberSearchKey.NONE);
+        assertThat(key.matchesNothing()).isTrue();
+        assertThat(MemberSearchKey.of(condition(null, "teamB", 5, 4))).isEqualTo(key);
+        assertThat(MemberSearchKey.of(condition(null, null, 20, 20)).matchesNothing()).isFalse();
+    }
+
+    @Test
+    void 정규화된_조건으로_변환() {
+        MemberSearchCondition condition = MemberSearchKey.of(condition(" member1 ", "", 10, Integer.MAX_VALUE)).toCondition();
+
+        assertThat(condition.getUsername()).isEqualTo("member1");
+        assertThat(condition.getTeamName()).isNull();
+        assertThat(condition.getAgeGoe()).isEqualTo(10);
+        assertThat(condition.getAgeLoe()).isNull();
+    }
+
+    private MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
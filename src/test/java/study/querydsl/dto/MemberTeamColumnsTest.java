@@ -0,0 +1,53 @@
+package study.querydsl.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberTeamColumnsTest {
+
+    @Test
+    void 팀은_사전으로_인코딩() {
+        MemberTeamColumns.Builder builder = MemberTeamColumns.builder();
+        for (int i = 0; i < 100; i++) {
+            long teamId = i % 2 == 0 ? 1L : 2L;
+            builder.add(i, "member" + i, i, teamId, "team" + teamId);
+        }
+        builder.add(100, "member100", 100, null, null);
+
+        MemberTeamColumns columns = builder.build();
+
+        assertThat(columns.size()).isEqualTo(101);
+        assertThat(columns.teamCount()).isEqualTo(2);
+
+        MemberTeamColumns.Cursor cursor = columns.cursor();
+        long ageSum = 0;
+        int count = 0;
+        while (cursor.next()) {
+            if (count < 100) {
+                assertThat(cursor.getTeamName()).isEqualTo("team" + cursor.getTeamId());
+            }
+            ageSum += cursor.getAge();
+            count++;
+        }
+        assertThat(count).isEqualTo(101);
+        assertThat(ageSum).isEqualTo(5050);
+    }
+
+    @Test
+    void 팀이_없는_row() {
+        MemberTeamColumns columns = MemberTeamColumns.builder()
+                .add(1, "member1", 10, null, null)
+                .build();
+
+        MemberTeamColumns.Cursor cursor = columns.cursor();
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.hasTeam()).isFalse();
+        assertThat(cursor.toDTO()).isEqualTo(new MemberTeamDTO(1L, "member1", 10, null, null));
+        assertThat(cursor.next()).isFalse();
+        assertThatThrownBy(cursor::getMemberId).isInstanceOf(NoSuchElementException.class);
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    @Test
+    void 백분위는_구간_상한으로_계산() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.percentileMicros(50)).isEqualTo(128);
+        assertThat(histogram.percentileMicros(99)).isEqualTo(128);
+        assertThat(histogram.percentileMicros(100)).isEqualTo(16384);
+        assertThat(histogram.getMaxMicros()).isEqualTo(10_000);
+    }
+}
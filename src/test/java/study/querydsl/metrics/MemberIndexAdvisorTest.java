@@ -0,0 +1,95 @@
+package study.querydsl.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberSearchShape;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.UsernameMatch;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class MemberIndexAdvisorTest {
+
+    @Autowired
+    MemberIndexAdvisor indexAdvisor;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    void before() {
+        indexAdvisor.reset();
+    }
+
+    @Test
+    void 검색_조건_조합별_인덱스_추천() {
+        MemberSearchCondition usernameAndAge = new MemberSearchCondition();
+        usernameAndAge.setUsername("member1");
+        usernameAndAge.setAgeGoe(20);
+        memberRepository.search(usernameAndAge);
+        memberRepository.search(usernameAndAge);
+
+        MemberSearchCondition teamName = new MemberSearchCondition();
+        teamName.setTeamName("teamA");
+        memberRepository.search(teamName);
+
+        List<MemberIndexAdvisor.IndexAdvice> advice = indexAdvisor.advise();
+
+        assertThat(advice).extracting("shape", "count")
+                .containsExactly(
+                        tuple("username+ageGoe", 2L),
+                        tuple("teamName", 1L));
+        assertThat(advice.get(0).getPlan()).containsIgnoringCase("tableScan");
+        assertThat(advice.get(0).getRecommendations())
+                .extracting("ddl")
+                .containsExactly("create index idx_member_username_age on member (username, age);");
+        assertThat(advice.get(0).getRecommendations())
+                .extracting("jpaIndex")
+                .containsExactly("@Index(name = \"idx_member_username_age\", columnList = \"username, age\")");
+        assertThat(advice.get(1).getRecommendations()).extracting("name").contains("idx_team_name");
+    }
+
+    @Test
+    void 모든_검색_진입점이_조건_조합을_기록() {
+        MemberSearchCondition teamName = new MemberSearchCondition();
+        teamName.setTeamName("teamA");
+        memberRepository.searchPageComplex(teamName, PageRequest.of(0, 2));
+        memberRepository.searchPageComplex2(teamName, PageRequest.of(0, 2));
+        memberRepository.searchByUsername("member", UsernameMatch.PREFIX, teamName);
+
+        MemberSearchCondition nothing = new MemberSearchCondition();
+        nothing.setAgeGoe(30);
+        nothing.setAgeLoe(20);
+        memberRepository.search(nothing);
+
+        // 결과가 없는 조건은 조회하지 않으므로 기록하지 않는다
+        assertThat(indexAdvisor.advise()).extracting("shape", "count")
+                .containsExactly(tuple("teamName", 3L));
+    }
+
+    @Test
+    void 인덱스를_사용하는_계획이면_추천하지_않음() {
+        String plan = "SELECT ... FROM \"PUBLIC\".\"MEMBER\" \"M\" /* PUBLIC.IDX_MEMBER_USERNAME_AGE: USERNAME = ?1 */";
+
+        assertThat(MemberIndexAdvisor.recommend(MemberSearchShape.USERNAME | MemberSearchShape.AGE_GOE, plan)).isEmpty();
+    }
+
+    @Test
+    void 조건_없는_검색은_추천하지_않음() {
+        String plan = "SELECT ... FROM \"PUBLIC\".\"MEMBER\" \"M\" /* PUBLIC.MEMBER.tableScan */";
+
+        assertThat(MemberIndexAdvisor.recommend(0, plan)).isEmpty();
+    }
+}
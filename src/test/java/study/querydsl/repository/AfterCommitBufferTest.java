@@ -0,0 +1,89 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class AfterCommitBufferTest {
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transaction;
+    TransactionTemplate requiresNew;
+    List<List<String>> applied;
+    AfterCommitBuffer<String> buffer;
+
+    @BeforeEach
+    void before() {
+        transaction = new TransactionTemplate(transactionManager);
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        applied = new ArrayList<>();
+        buffer = new AfterCommitBuffer<>("test", applied::add);
+    }
+
+    @Test
+    void 커밋_후에_한_번에_반영() {
+        transaction.executeWithoutResult(status -> {
+            buffer.add("a");
+            buffer.add("b");
+            buffer.add("a");
+            assertThat(applied).isEmpty();
+        });
+
+        assertThat(applied).containsExactly(List.of("b", "a"));
+    }
+
+    @Test
+    void 롤백되면_반영하지_않음() {
+        transaction.executeWithoutResult(status -> {
+            buffer.add("a");
+            status.setRollbackOnly();
+        });
+
+        assertThat(applied).isEmpty();
+    }
+
+    @Test
+    void REQUIRES_NEW_트랜잭션의_변경은_따로_반영() {
+        transaction.executeWithoutResult(status -> {
+            buffer.add("outer");
+            requiresNew.executeWithoutResult(inner -> buffer.add("inner"));
+
+            assertThat(applied).containsExactly(List.of("inner"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(applied).containsExactly(List.of("inner"));
+    }
+
+    @Test
+    void 트랜잭션_밖이면_즉시_반영() {
+        buffer.add("a");
+
+        assertThat(applied).containsExactly(List.of("a"));
+    }
+
+    @Test
+    void 반영_중_예외는_호출자에게_던지지_않음() {
+        AfterCommitBuffer<String> failing = new AfterCommitBuffer<>("failing", changes -> {
+            throw new IllegalStateException("refresh failed");
+        });
+
+        transaction.executeWithoutResult(status -> failing.add("a"));
+        failing.add("b");
+    }
+}
@@ -0,0 +1,132 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 변경은 커밋 후에 반영되므로 테스트 트랜잭션 없이 실행하고, 직접 정리한다.
+ * 다른 테스트와 DB, 2차 캐시를 공유하지 않도록 별도의 H2 를 사용한다.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "member.search.backend=memory",
+        "spring.datasource.url=jdbc:h2:mem:inMemorySearch",
+        "member.cache.enabled=false"
+})
+class InMemoryMemberSearchTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJPARepository memberJPARepository;
+
+    @Autowired
+    MemberBulkMutationService bulkMutationService;
+
+    @Autowired
+    InMemoryMemberSearch inMemorySearch;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+            em.persist(new Member("member3", 30, teamB));
+            em.persist(new Member("member4", 40, teamB));
+            em.persist(new Member("member5", 40));
+        });
+    }
+
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        inMemorySearch.rebuild();
+    }
+
+    @Test
+    void DB_검색과_같은_결과() {
+        assertThat(inMemorySearch.size()).isEqualTo(5);
+
+        assertSameAsDatabase(condition(null, null, null, null));
+        assertSameAsDatabase(condition("member1", null, null, null));
+        assertSameAsDatabase(condition(null, "teamB", null, null));
+        assertSameAsDatabase(condition(null, "teamB", 35, null));
+        assertSameAsDatabase(condition(null, null, 20, 40));
+        assertSameAsDatabase(condition("", "", null, 15));
+        assertSameAsDatabase(condition("member3", "teamA", null, null));
+    }
+
+    @Test
+    void 회원_팀_변경_반영() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamB = em.createQuery("select t from Team t where t.name = 'teamB'", Team.class).getSingleResult();
+            teamB.setName("teamC");
+            Member member1 = em.createQuery("select m from Member m where m.username = 'member1'", Member.class)
+                    .getSingleResult();
+            member1.changeTeam(teamB);
+            member1.setAge(50);
+        });
+
+        assertThat(memberRepository.search(condition(null, "teamC", 45, null)))
+                .extracting("username", "teamName")
+                .containsExactly(tuple("member1", "teamC"));
+        assertThat(memberRepository.search(condition(null, "teamB", null, null))).isEmpty();
+        assertSameAsDatabase(condition(null, "teamC", null, null));
+    }
+
+    @Test
+    void bulk_수정_반영() {
+        bulkMutationService.update(member.age.goe(40),
+                update -> update.set(member.age, member.age.add(1)),
+                BulkMutationOptions.of(100));
+
+        assertSameAsDatabase(condition(null, null, 41, null));
+        assertThat(memberRepository.search(condition(null, null, 41, null))).hasSize(2);
+    }
+
+    private void assertSameAsDatabase(MemberSearchCondition condition) {
+        List<MemberTeamDTO> expected = memberJPARepository.search(condition);
+        expected.sort((a, b) -> a.getMemberId().compareTo(b.getMemberId()));
+
+        assertThat(memberRepository.search(condition)).isEqualTo(expected);
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
@@ -0,0 +1,115 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * chunk 마다 별도 트랜잭션으로 커밋하므로 테스트 트랜잭션 없이 실행하고, 직접 정리한다.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class MemberBulkMutationServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberBulkMutationService bulkMutationService;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("chunk" + i, i));
+            }
+        });
+    }
+
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory
+                    .delete(member)
+                    .where(member.username.startsWith("chunk"))
+                    .execute();
+            queryFactory
+                    .delete(team)
+                    .where(team.name.eq("chunkTeam"))
+                    .execute();
+        });
+    }
+
+    @Test
+    void chunk_단위_수정() {
+        BulkMutationResult result = bulkMutationService.update(
+                member.username.startsWith("chunk").and(member.age.lt(5)),
+                update -> update.set(member.age, member.age.add(100)),
+                BulkMutationOptions.of(3));
+
+        assertThat(result.getTotalRows()).isEqualTo(5);
+        assertThat(result.getChunks()).hasSize(2);
+
+        List<Integer> ages = queryFactory
+                .select(member.age)
+                .from(member)
+                .where(member.username.startsWith("chunk"))
+                .orderBy(member.age.asc())
+                .fetch();
+        assertThat(ages).containsExactly(5, 6, 7, 8, 9, 100, 101, 102, 103, 104);
+    }
+
+    @Test
+    void chunk_단위_삭제() {
+        BulkMutationResult result = bulkMutationService.delete(
+                member.username.startsWith("chunk"),
+                BulkMutationOptions.of(4));
+
+        assertThat(result.getTotalRows()).isEqualTo(10);
+        assertThat(result.getChunks()).hasSize(3);
+        assertThat(queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("chunk"))
+                .fetch()).isEmpty();
+    }
+
+    @Test
+    void 삭제하면_팀의_members_컬렉션_캐시도_제거() {
+        Long teamId = transactionTemplate.execute(status -> {
+            Team chunkTeam = new Team("chunkTeam");
+            em.persist(chunkTeam);
+            em.persist(new Member("chunkA", 30, chunkTeam));
+            em.persist(new Member("chunkB", 31, chunkTeam));
+            return chunkTeam.getId();
+        });
+        // members 컬렉션을 2차 캐시에 올린다
+        assertThat(transactionTemplate.execute(status -> em.find(Team.class, teamId).getMembers().size())).isEqualTo(2);
+
+        BulkMutationResult result = bulkMutationService.delete(
+                member.username.in("chunkA", "chunkB"),
+                BulkMutationOptions.of(100));
+
+        assertThat(result.getTotalRows()).isEqualTo(2);
+        assertThat(transactionTemplate.execute(status -> em.find(Team.class, teamId).getMembers().size())).isZero();
+    }
+}
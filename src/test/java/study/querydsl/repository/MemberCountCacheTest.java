@@ -0,0 +1,52 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountCacheTest {
+
+    MemberDataVersion dataVersion;
+    MemberCountCache countCache;
+    AtomicInteger loads;
+
+    @BeforeEach
+    void before() {
+        dataVersion = new MemberDataVersion();
+        countCache = new MemberCountCache(dataVersion, Duration.ofMinutes(1), 10);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void 데이터_버전이_바뀌면_다시_조회() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        assertThat(countCache.get(condition, this::load)).isEqualTo(1);
+        assertThat(countCache.get(condition, this::load)).isEqualTo(1);
+
+        dataVersion.increment();
+
+        assertThat(countCache.get(condition, this::load)).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void 결과가_없을_수밖에_없는_조건은_조회하지_않음() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(20);
+
+        assertThat(countCache.get(condition, this::load)).isZero();
+        assertThat(loads).hasValue(0);
+    }
+
+    private long load() {
+        return loads.incrementAndGet();
+    }
+}
@@ -0,0 +1,68 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class MemberCountQueryBuilderTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    MemberCountQueryBuilder countQueryBuilder;
+
+    @BeforeEach
+    void before() {
+        countQueryBuilder = new MemberCountQueryBuilder(queryFactory);
+
+        Team teamA = new Team("countBuilderTeamA");
+        Team teamB = new Team("countBuilderTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("countBuilder1", 10, teamA));
+        em.persist(new Member("countBuilder2", 20, teamA));
+        em.persist(new Member("countBuilder3", 30, teamB));
+    }
+
+    @Test
+    void teamName_조건이_없으면_join_제거() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("countBuilder1");
+
+        MemberCountQuery countQuery = countQueryBuilder.build(condition);
+
+        assertThat(countQuery.getRemovedJoins()).containsExactly(MemberCountQueryBuilder.TEAM_JOIN);
+        assertThat(countQuery.getQuery().toString()).doesNotContain("join");
+        assertThat(countQuery.fetchCount()).isEqualTo(1);
+    }
+
+    @Test
+    void teamName_조건이_있으면_join_유지() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("countBuilderTeamA");
+
+        MemberCountQuery countQuery = countQueryBuilder.build(condition);
+
+        assertThat(countQuery.getRemovedJoins()).isEmpty();
+        assertThat(countQuery.getQuery().toString()).contains("left join member1.team");
+        assertThat(countQuery.fetchCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,96 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.controller.MemberResponseCache;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 버전은 커밋 후에 올라가므로 테스트 트랜잭션 없이 실행하고, 직접 정리한다.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class MemberDataVersionTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberDataVersion dataVersion;
+
+    @Autowired
+    MemberResponseCache responseCache;
+
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'version%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name like 'version%'").executeUpdate();
+        });
+        responseCache.evictAll();
+    }
+
+    @Test
+    void 회원_변경이_커밋되면_트랜잭션마다_한_번_올라간다() {
+        long version = dataVersion.current();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("version1", 10));
+            em.persist(new Member("version2", 20));
+            em.flush();
+            // 커밋 전에는 그대로다
+            assertThat(dataVersion.current()).isEqualTo(version);
+        });
+        assertThat(dataVersion.current()).isEqualTo(version + 1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("version3", 30));
+            status.setRollbackOnly();
+        });
+        assertThat(dataVersion.current()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void 팀은_이름이_바뀔_때만_올라간다() {
+        long version = dataVersion.current();
+        Long teamId = transactionTemplate.execute(status -> {
+            Team team = new Team("versionTeam");
+            em.persist(team);
+            return team.getId();
+        });
+        assertThat(dataVersion.current()).isEqualTo(version);
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamId).setName("versionTeamRenamed"));
+        assertThat(dataVersion.current()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void 회원을_저장하면_캐시된_응답을_다시_조회한다() {
+        AtomicInteger loads = new AtomicInteger();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("version1");
+
+        responseCache.get("v1", condition, null, loads::incrementAndGet);
+        responseCache.get("v1", condition, null, loads::incrementAndGet);
+        assertThat(loads).hasValue(1);
+
+        transactionTemplate.executeWithoutResult(status -> em.persist(new Member("version1", 10)));
+
+        responseCache.get("v1", condition, null, loads::incrementAndGet);
+        assertThat(loads).hasValue(2);
+    }
+}
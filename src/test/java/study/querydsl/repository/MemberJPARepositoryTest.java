@@ -1,5 +1,6 @@
 package study.querydsl.repository;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -9,9 +10,13 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.metrics.QueryMetrics;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -26,6 +31,15 @@ class MemberJPARepositoryTest {
     @Autowired
     MemberJPARepository memberJpaRepository;
 
+    @Autowired
+    MemberBulkWriter memberBulkWriter;
+
+    @Autowired
+    MemberJdbcRepository memberJdbcRepository;
+
+    @Autowired
+    QueryMetrics queryMetrics;
+
 
     @Test
     void basicTest() {
@@ -75,8 +89,133 @@ class MemberJPARepositoryTest {
         condition.setAgeLoe(40);
         condition.setTeamName("teamB");
 
+        queryMetrics.reset();
+
         List<MemberTeamDTO> result = memberJpaRepository.searchByBuilder(condition);
 
         assertThat(result).extracting("username").containsExactly("member4");
+        // 쿼리 템플릿 캐시를 거치고 호출 위치 이름으로 집계된다
+        assertThat(queryMetrics.snapshot()).containsOnlyKeys("MemberJPARepository.searchByBuilder[teamName+ageGoe+ageLoe]");
+    }
+
+    @Test
+    void streamTest() {
+        Team team = new Team("streamTeam");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("stream" + i, i * 10, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("streamTeam");
+        queryMetrics.reset();
+
+        List<MemberTeamDTO> result;
+        try (Stream<MemberTeamDTO> stream = memberJpaRepository.stream(condition, 2)) {
+            result = stream.collect(Collectors.toList());
+        }
+        // 스트림을 닫을 때 읽은 row 수와 함께 기록된다
+        assertThat(queryMetrics.snapshot().get("MemberJPARepository.stream[teamName]").getRowsReturned()).isEqualTo(5);
+
+        assertThat(result).extracting("username")
+                .containsExactly("stream1", "stream2", "stream3", "stream4", "stream5");
+        // 스트림이 호출한 쪽의 영속성 컨텍스트를 비우지 않는다
+        assertThat(em.contains(team)).isTrue();
+    }
+
+    @Test
+    void bulkInsertTest() {
+        Team team = new Team("bulkTeam");
+        em.persist(team);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            members.add(new Member("bulk" + i, i, team));
+        }
+
+        BulkInsertResult result = memberBulkWriter.insertAll(members, 50);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("bulkTeam");
+        assertThat(result.getRows()).isEqualTo(120);
+        assertThat(memberJpaRepository.search(condition)).hasSize(120);
+        // 저장한 회원만 detach 하고 호출한 쪽이 불러온 팀은 그대로 둔다
+        assertThat(em.contains(team)).isTrue();
+        assertThat(em.contains(members.get(0))).isFalse();
+    }
+
+    @Test
+    void jdbcRowMapperTest() {
+        Team team = new Team("jdbcTeam");
+        em.persist(team);
+        em.persist(new Member("jdbc1", 10, team));
+        em.persist(new Member("jdbc2", 20, team));
+        em.persist(new Member("jdbc3", 30));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("jdbcTeam");
+        condition.setAgeGoe(15);
+
+        List<MemberTeamDTO> result = memberJdbcRepository.search(condition);
+
+        assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(memberJpaRepository.search(condition));
+        assertThat(result).extracting("username").containsExactly("jdbc2");
+        assertThat(result).extracting("teamId").containsExactly(team.getId());
+
+        MemberSearchCondition noTeamCondition = new MemberSearchCondition();
+        noTeamCondition.setUsername("jdbc3");
+        assertThat(memberJdbcRepository.search(noTeamCondition)).extracting("teamId").containsNull();
+    }
+
+    @Test
+    void findByUsernamesTest() {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            memberJpaRepository.save(new Member("names" + i, i));
+            usernames.add("names" + i);
+        }
+        usernames.add("names0");
+        usernames.add("unknown");
+        em.flush();
+        em.clear();
+
+        List<Member> result = memberJpaRepository.findByUsernames(usernames);
+
+        assertThat(result).hasSize(300);
+        assertThat(result).extracting("username").doesNotHaveDuplicates();
+    }
+
+    @Test
+    void readOnlyQueryTest() {
+        Team teamA = new Team("readOnlyTeam");
+        em.persist(teamA);
+        memberJpaRepository.save(new Member("readOnly1", 10, teamA));
+        memberJpaRepository.save(new Member("readOnly2", 20, teamA));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("readOnlyTeam");
+        List<Member> result = memberJpaRepository.findMemberReadOnly(condition);
+
+        Session session = em.unwrap(Session.class);
+        assertThat(result).hasSize(2);
+        assertThat(result).allMatch(session::isReadOnly);
+
+        // 읽기 전용 엔티티는 변경 감지 대상이 아니다.
+        result.forEach(m -> m.setAge(99));
+        em.flush();
+        em.clear();
+
+        assertThat(memberJpaRepository.findByUsername("readOnly1")).extracting("age").containsExactly(10);
+    }
+
+    @Test
+    void padInListTest() {
+        assertThat(MemberJPARepository.padInList(List.of("a"))).containsExactly("a");
+        assertThat(MemberJPARepository.padInList(List.of("a", "b", "c"))).containsExactly("a", "b", "c", "c");
+        assertThat(MemberJPARepository.padInList(List.of("a", "b", "c", "d"))).hasSize(4);
     }
-}
\ No newline at end of file
+}
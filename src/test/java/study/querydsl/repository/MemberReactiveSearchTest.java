@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.test.StepVerifier;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.metrics.QueryMetrics;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 조회가 boundedElastic 스레드의 별도 트랜잭션에서 실행되므로 테스트 트랜잭션 없이 실행하고, 직접 정리한다.
+ * 다른 테스트와 DB, 2차 캐시를 공유하지 않도록 별도의 H2 를 사용한다.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "member.search.reactive.chunk-size=10",
+        "spring.datasource.url=jdbc:h2:mem:reactiveSearch",
+        "member.cache.enabled=false"
+})
+class MemberReactiveSearchTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberReactiveSearch memberReactiveSearch;
+
+    @Autowired
+    QueryMetrics queryMetrics;
+
+    MemberSearchCondition condition;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("reactiveTeam");
+            em.persist(team);
+            for (int i = 0; i < 35; i++) {
+                em.persist(new Member("reactive" + i, i, team));
+            }
+        });
+        condition = new MemberSearchCondition();
+        condition.setTeamName("reactiveTeam");
+        queryMetrics.reset();
+    }
+
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'reactive%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name = 'reactiveTeam'").executeUpdate();
+        });
+    }
+
+    @Test
+    void 전체_결과를_순서대로_내보냄() {
+        List<MemberTeamDTO> result = memberReactiveSearch.search(condition).collectList().block();
+
+        assertThat(result).extracting("memberId")
+                .containsExactlyElementsOf(memberRepository.search(condition).stream()
+                        .map(MemberTeamDTO::getMemberId)
+                        .sorted()
+                        .toList());
+        assertThat(searchAfterCount()).isEqualTo(4);
+    }
+
+    @Test
+    void 요청한_만큼만_조회() {
+        StepVerifier.create(memberReactiveSearch.search(condition), 5)
+                .expectNextCount(5)
+                // 현재 chunk 와 미리 요청한 다음 chunk 까지만 조회
+                .then(() -> assertThat(searchAfterCount()).isLessThanOrEqualTo(2))
+                .thenRequest(10)
+                .expectNextCount(10)
+                .thenCancel()
+                .verify();
+
+        assertThat(searchAfterCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void 조회는_boundedElastic_스레드에서_실행() {
+        String thread = memberReactiveSearch.search(condition)
+                .map(dto -> Thread.currentThread().getName())
+                .blockFirst();
+
+        assertThat(thread).startsWith("boundedElastic");
+    }
+
+    private long searchAfterCount() {
+        QueryMetrics.ShapeSnapshot snapshot = queryMetrics.snapshot().get("MemberRepository.searchAfter[teamName]");
+        return snapshot == null ? 0 : snapshot.getCount();
+    }
+}
@@ -1,19 +1,35 @@
 package study.querydsl.repository;
 
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.metrics.QueryMetrics;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @SpringBootTest
 @Transactional
@@ -25,6 +41,18 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MemberSearchQueryCache searchQueryCache;
+
+    @Autowired
+    QueryMetrics queryMetrics;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MemberJPARepository memberJPARepository;
+
     @Test
     void basicTest() {
         Member member = new Member("member1", 10);
@@ -66,4 +94,265 @@ class MemberRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member4");
     }
 
-}
\ No newline at end of file
+    @Test
+    void searchAfterTest() {
+        Team cursorTeam = new Team("cursorTeam");
+        em.persist(cursorTeam);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, cursorTeam));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("cursorTeam");
+
+        Slice<MemberTeamDTO> first = memberRepository.searchAfter(condition, null, 2);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(first.hasNext()).isTrue();
+
+        String cursor = MemberCursorPage.of(first).getNextCursor();
+        Slice<MemberTeamDTO> second = memberRepository.searchAfter(condition, cursor, 2);
+        assertThat(second.getContent()).extracting("username").containsExactly("member3", "member4");
+
+        Slice<MemberTeamDTO> last = memberRepository.searchAfter(condition, MemberCursorPage.of(second).getNextCursor(), 2);
+        assertThat(last.getContent()).extracting("username").containsExactly("member5");
+        assertThat(last.hasNext()).isFalse();
+        assertThat(MemberCursorPage.of(last).getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchPageCountStrategyTest() {
+        Team team = new Team("countTeam");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("countTeam");
+        PageRequest pageRequest = PageRequest.of(0, 2);
+
+        Slice<MemberTeamDTO> exact = memberRepository.searchPage(condition, pageRequest, CountStrategy.EXACT);
+        assertThat(exact).isInstanceOf(Page.class);
+        assertThat(((Page<MemberTeamDTO>) exact).getTotalElements()).isEqualTo(5);
+
+        Slice<MemberTeamDTO> cached = memberRepository.searchPage(condition, pageRequest, CountStrategy.CACHED);
+        assertThat(((Page<MemberTeamDTO>) cached).getTotalElements()).isEqualTo(5);
+
+        Slice<MemberTeamDTO> approximate = memberRepository.searchPage(condition, pageRequest, CountStrategy.APPROXIMATE);
+        assertThat(((Page<MemberTeamDTO>) approximate).getTotalElements()).isEqualTo(5);
+
+        // 전체 건수를 모르므로 Page 가 아니다
+        Slice<MemberTeamDTO> hasNext = memberRepository.searchPage(condition, pageRequest, CountStrategy.HAS_NEXT);
+        assertThat(hasNext).isNotInstanceOf(Page.class);
+        assertThat(hasNext.getContent()).hasSize(2);
+        assertThat(hasNext.hasNext()).isTrue();
+
+        Slice<MemberTeamDTO> lastPage = memberRepository.searchPage(condition, PageRequest.of(2, 2), CountStrategy.HAS_NEXT);
+        assertThat(lastPage.getContent()).extracting("username").containsExactly("member5");
+        assertThat(lastPage.hasNext()).isFalse();
+    }
+
+    @Test
+    void approximateCountWithoutConditionTest() {
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("approximate" + i, i * 10));
+        }
+        em.flush();
+
+        Slice<MemberTeamDTO> page = memberRepository.searchPage(new MemberSearchCondition(), PageRequest.of(0, 2),
+                CountStrategy.APPROXIMATE);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(((Page<MemberTeamDTO>) page).getTotalElements()).isGreaterThanOrEqualTo(0);
+        // 추정치 조회는 별도 트랜잭션에서 실행되므로 현재 트랜잭션에 영향을 주지 않는다
+        assertThat(TransactionAspectSupport.currentTransactionStatus().isRollbackOnly()).isFalse();
+    }
+
+    @Test
+    void searchQueryCacheTest() {
+        Team team = new Team("templateTeam");
+        em.persist(team);
+        em.persist(new Member("template1", 10, team));
+        em.persist(new Member("template2", 20, team));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("templateTeam");
+        condition.setAgeGoe(15);
+
+        List<MemberTeamDTO> first = memberRepository.search(condition);
+        long hitCount = searchQueryCache.getHitCount();
+
+        condition.setAgeGoe(5);
+        List<MemberTeamDTO> second = memberRepository.search(condition);
+
+        assertThat(first).extracting("username").containsExactly("template2");
+        assertThat(second).extracting("username").containsExactly("template1", "template2");
+        assertThat(searchQueryCache.getHitCount()).isEqualTo(hitCount + 1);
+    }
+
+    @Test
+    void searchWithCachedTeamTest() {
+        Team teamA = new Team("cachedTeamA");
+        Team teamB = new Team("cachedTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("cached1", 10, teamA));
+        em.persist(new Member("cached2", 20, teamB));
+        em.persist(new Member("cached3", 30, teamB));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("cachedTeamB");
+        condition.setAgeGoe(25);
+
+        List<MemberTeamDTO> result = memberRepository.searchWithCachedTeam(condition);
+
+        assertThat(result).extracting("username").containsExactly("cached3");
+        assertThat(result).extracting("teamName").containsExactly("cachedTeamB");
+        assertThat(result).extracting("teamId").containsExactly(teamB.getId());
+    }
+
+    @Test
+    void searchColumnsTest() {
+        Team team = new Team("columnTeam");
+        em.persist(team);
+        em.persist(new Member("column1", 10, team));
+        em.persist(new Member("column2", 20, team));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("columnTeam");
+
+        MemberTeamColumns columns = memberRepository.searchColumns(condition);
+        List<MemberTeamDTO> expected = memberRepository.search(condition);
+
+        assertThat(columns.size()).isEqualTo(2);
+        assertThat(columns.teamCount()).isEqualTo(1);
+        MemberTeamColumns.Cursor cursor = columns.cursor();
+        for (MemberTeamDTO dto : expected) {
+            assertThat(cursor.next()).isTrue();
+            assertThat(cursor.toDTO()).isEqualTo(dto);
+        }
+        assertThat(cursor.next()).isFalse();
+    }
+
+    @Test
+    void readColumnsHoldsOneRowTest() {
+        // 커서처럼 같은 배열을 재사용한다. row 를 모아 두었다가 옮기면 모든 row 가 마지막 값으로 바뀐다
+        Object[] buffer = new Object[5];
+        AtomicInteger read = new AtomicInteger();
+        ScrollableResults rows = mock(ScrollableResults.class);
+        when(rows.next()).thenAnswer(invocation -> {
+            int row = read.getAndIncrement();
+            if (row == 3) {
+                return false;
+            }
+            buffer[0] = (long) row;
+            buffer[1] = "scroll" + row;
+            buffer[2] = row * 10;
+            buffer[3] = row == 1 ? null : 1L;
+            buffer[4] = row == 1 ? null : "scrollTeam";
+            return true;
+        });
+        when(rows.get()).thenReturn(buffer);
+
+        MemberTeamColumns columns = MemberRepositoryImpl.readColumns(rows);
+
+        assertThat(columns.size()).isEqualTo(3);
+        MemberTeamColumns.Cursor cursor = columns.cursor();
+        for (int row = 0; row < 3; row++) {
+            assertThat(cursor.next()).isTrue();
+            assertThat(cursor.getMemberId()).isEqualTo(row);
+            assertThat(cursor.getUsername()).isEqualTo("scroll" + row);
+            assertThat(cursor.hasTeam()).isEqualTo(row != 1);
+        }
+        verify(rows).close();
+    }
+
+    @Test
+    void normalizedConditionTest() {
+        Team team = new Team("normalizedTeam");
+        em.persist(team);
+        em.persist(new Member("normalized1", 10, team));
+        em.persist(new Member("normalized2", 20, team));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(" ");
+        condition.setTeamName("normalizedTeam ");
+        condition.setAgeLoe(Integer.MAX_VALUE);
+
+        assertThat(memberRepository.search(condition)).extracting("username")
+                .containsExactlyInAnyOrder("normalized1", "normalized2");
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)).getContent())
+                .extracting("username")
+                .containsExactlyInAnyOrder("normalized1", "normalized2");
+
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(20);
+        Slice<MemberTeamDTO> empty = memberRepository.searchPage(condition, PageRequest.of(0, 10), CountStrategy.EXACT);
+
+        assertThat(empty.getContent()).isEmpty();
+        assertThat(((Page<MemberTeamDTO>) empty).getTotalElements()).isZero();
+    }
+
+    @Test
+    void matchesNothingSkipsQueryTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(20);
+        PageRequest pageable = PageRequest.of(0, 10);
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        assertThat(memberRepository.search(condition)).isEmpty();
+        assertThat(memberRepository.searchColumns(condition).size()).isZero();
+        assertThat(memberRepository.searchWithCachedTeam(condition)).isEmpty();
+        assertThat(memberRepository.searchPageSimple(condition, pageable)).isEmpty();
+        assertThat(memberRepository.searchPageComplex(condition, pageable)).isEmpty();
+        assertThat(memberRepository.searchPageComplex2(condition, pageable)).isEmpty();
+        assertThat(memberRepository.searchPageCountQuery(condition, pageable)).isEmpty();
+        assertThat(memberRepository.searchPage(condition, pageable, CountStrategy.EXACT)).isEmpty();
+        assertThat(memberRepository.searchPage(condition, pageable, CountStrategy.HAS_NEXT)).isEmpty();
+        assertThat(memberRepository.searchAfter(condition, null, 10)).isEmpty();
+        assertThat(memberRepository.searchByUsername("member", UsernameMatch.PREFIX, condition)).isEmpty();
+        assertThat(memberJPARepository.search(condition)).isEmpty();
+        assertThat(memberJPARepository.searchByBuilder(condition)).isEmpty();
+        assertThat(memberJPARepository.findMember(condition)).isEmpty();
+        try (Stream<MemberTeamDTO> stream = memberJPARepository.stream(condition)) {
+            assertThat(stream).isEmpty();
+        }
+
+        // 결과가 없을 수밖에 없는 조건은 SQL 을 실행하지 않는다
+        assertThat(statistics.getPrepareStatementCount() - before).isZero();
+    }
+
+    @Test
+    void queryMetricsByShapeTest() {
+        Team team = new Team("metricsTeam");
+        em.persist(team);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("metrics" + i, i * 10, team));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("metricsTeam");
+        condition.setAgeGoe(10);
+        queryMetrics.reset();
+
+        memberRepository.searchPageCountQuery(condition, PageRequest.of(0, 2));
+        memberRepository.search(condition);
+        memberRepository.searchColumns(condition);
+
+        // 호출 위치와 조건 조합별로 집계된다
+        assertThat(queryMetrics.snapshot()).containsOnlyKeys(
+                "MemberRepository.searchPageCountQuery[teamName+ageGoe]",
+                "MemberRepository.count[teamName+ageGoe]",
+                "MemberRepository.search[teamName+ageGoe]",
+                "MemberRepository.searchColumns[teamName+ageGoe]");
+        assertThat(queryMetrics.snapshot().get("MemberRepository.count[teamName+ageGoe]").getCount()).isEqualTo(1);
+        assertThat(queryMetrics.snapshot().get("MemberRepository.searchColumns[teamName+ageGoe]").getRowsReturned()).isEqualTo(5);
+    }
+}
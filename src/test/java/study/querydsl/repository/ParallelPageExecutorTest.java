@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelPageExecutorTest {
+
+    ParallelPageExecutor parallelPageExecutor = new ParallelPageExecutor(1, 1, 1);
+
+    @AfterEach
+    void after() {
+        parallelPageExecutor.destroy();
+    }
+
+    @Test
+    void count_쿼리는_별도_스레드에서_실행() {
+        AtomicReference<String> countThread = new AtomicReference<>();
+
+        Page<String> page = parallelPageExecutor.getPage(
+                () -> List.of("a", "b"),
+                PageRequest.of(1, 2),
+                () -> {
+                    countThread.set(Thread.currentThread().getName());
+                    return 10;
+                });
+
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(countThread.get()).startsWith("search-count-");
+    }
+
+    @Test
+    void count_쿼리_예외는_그대로_전달() {
+        assertThatThrownBy(() -> parallelPageExecutor.getPage(
+                () -> List.of("a", "b"),
+                PageRequest.of(1, 2),
+                () -> {
+                    throw new IllegalStateException("count failed");
+                }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("count failed");
+    }
+
+    @Test
+    void count_가_필요_없으면_기다리지_않음() {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Page<String> page = parallelPageExecutor.getPage(
+                    () -> List.of("a"),
+                    PageRequest.of(1, 2),
+                    () -> {
+                        await(release);
+                        return 10;
+                    });
+
+            // 마지막 페이지이므로 count 를 기다리지 않고 offset + content 크기로 계산한다
+            assertThat(page.getTotalElements()).isEqualTo(3);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class TeamBatchLoaderTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamBatchLoader teamBatchLoader;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void before() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("batchTeam" + i);
+            em.persist(team);
+            em.persist(new Member("batch" + i + "a", 10, team));
+            em.persist(new Member("batch" + i + "b", 20, team));
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+    }
+
+    @Test
+    void 팀을_한_번의_쿼리로_로딩() {
+        List<Member> members = findBatchMembers();
+        assertThat(members).allMatch(m -> !Hibernate.isInitialized(m.getTeam()));
+
+        long before = statistics.getPrepareStatementCount();
+        List<Team> loaded = teamBatchLoader.loadTeams(members);
+
+        assertThat(loaded).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(1);
+        assertThat(members).allMatch(m -> Hibernate.isInitialized(m.getTeam()));
+    }
+
+    @Test
+    void 지연_로딩_접근도_배치로_로딩() {
+        List<Member> members = findBatchMembers();
+
+        long before = statistics.getPrepareStatementCount();
+        for (Member findMember : members) {
+            assertThat(findMember.getTeam().getName()).startsWith("batchTeam");
+        }
+
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(1);
+    }
+
+    private List<Member> findBatchMembers() {
+        return queryFactory
+                .selectFrom(member)
+                .where(member.username.startsWith("batch"))
+                .fetch();
+    }
+}
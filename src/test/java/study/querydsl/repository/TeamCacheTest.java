@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * READ_WRITE 캐시는 같은 트랜잭션에서 올린 항목을 읽지 않으므로, 트랜잭션을 나눠서 조회하고 직접 정리한다.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class TeamCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    Statistics statistics;
+
+    Long teamId;
+
+    @BeforeEach
+    void before() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        teamId = transactionTemplate.execute(status -> {
+            Team cacheTeam = new Team("l2Team");
+            em.persist(cacheTeam);
+            em.persist(new Member("l2Member1", 10, cacheTeam));
+            em.persist(new Member("l2Member2", 20, cacheTeam));
+            return cacheTeam.getId();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory
+                    .delete(member)
+                    .where(member.username.startsWith("l2Member"))
+                    .execute();
+            queryFactory
+                    .delete(team)
+                    .where(team.name.eq("l2Team"))
+                    .execute();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    void 팀과_members_컬렉션은_두_번째_조회부터_캐시에서_읽는다() {
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+        long missCount = statistics.getSecondLevelCacheMissCount();
+        assertThat(countMembers()).isEqualTo(2);
+
+        // 팀 1번, members 컬렉션 1번
+        assertThat(statistics.getSecondLevelCacheHitCount() - hitCount).isZero();
+        assertThat(statistics.getSecondLevelCacheMissCount() - missCount).isEqualTo(2);
+
+        hitCount = statistics.getSecondLevelCacheHitCount();
+        assertThat(countMembers()).isEqualTo(2);
+
+        assertThat(statistics.getSecondLevelCacheHitCount() - hitCount).isEqualTo(2);
+    }
+
+    @Test
+    void searchWithCachedTeam_은_팀_이름을_캐시에서_채운다() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("l2Member1");
+        memberRepository.searchWithCachedTeam(condition);
+
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+        List<MemberTeamDTO> result = memberRepository.searchWithCachedTeam(condition);
+
+        assertThat(result).extracting("teamName").containsExactly("l2Team");
+        assertThat(statistics.getSecondLevelCacheHitCount() - hitCount).isEqualTo(1);
+    }
+
+    private Integer countMembers() {
+        return transactionTemplate.execute(status -> em.find(Team.class, teamId).getMembers().size());
+    }
+}
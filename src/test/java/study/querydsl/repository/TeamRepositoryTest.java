@@ -0,0 +1,102 @@
+package study.querydsl.repository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    Statistics statistics;
+
+    List<Long> teamIds = new ArrayList<>();
+
+    @BeforeEach
+    void before() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("graphTeam" + i);
+            em.persist(team);
+            for (int j = 0; j < 3; j++) {
+                em.persist(new Member("graph" + i + "_" + j, 10 + j, team));
+            }
+            teamIds.add(team.getId());
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+    }
+
+    @Test
+    void 회원_컬렉션을_배치로_로딩() {
+        long before = statistics.getPrepareStatementCount();
+        List<Team> teams = teamRepository.findAllById(teamIds);
+        for (Team team : teams) {
+            assertThat(team.getMembers()).hasSize(3);
+        }
+
+        // 팀 조회 1번 + members 배치 로딩 1번
+        assertThat(teams).hasSize(5);
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(2);
+    }
+
+    @Test
+    void 엔티티_그래프로_함께_조회() {
+        List<Long> reversed = new ArrayList<>(teamIds);
+        Collections.reverse(reversed);
+
+        long before = statistics.getPrepareStatementCount();
+        List<Team> teams = teamRepository.findAllWithMembers(reversed);
+
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(1);
+        assertThat(teams).extracting(Team::getId).containsExactlyElementsOf(reversed);
+        assertThat(teams).allMatch(t -> Hibernate.isInitialized(t.getMembers()));
+        assertThat(teams).allMatch(t -> t.getMembers().size() == 3);
+    }
+
+    @Test
+    void 페이징과_함께_조회() {
+        long before = statistics.getPrepareStatementCount();
+        Page<Team> page = teamRepository.findPageWithMembers(PageRequest.of(0, 2));
+
+        // id 페이징 + 엔티티 그래프 조회 + count (첫 페이지가 가득 찼으므로 count 도 실행된다)
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(3);
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(5);
+        assertThat(page.getContent()).allMatch(t -> Hibernate.isInitialized(t.getMembers()));
+
+        long afterQuery = statistics.getPrepareStatementCount();
+        page.getContent().forEach(t -> t.getMembers().size());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterQuery);
+    }
+}
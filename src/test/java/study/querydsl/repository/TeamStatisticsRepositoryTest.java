@@ -0,0 +1,124 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeBucketStatisticsDTO;
+import study.querydsl.dto.TeamStatisticsDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class TeamStatisticsRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamStatisticsRepository teamStatisticsRepository;
+
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    void before() {
+        teamA = new Team("statTeamA");
+        teamB = new Team("statTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("stat1", 10, teamA));
+        em.persist(new Member("stat2", 15, teamA));
+        em.persist(new Member("stat3", 21, teamA));
+        em.persist(new Member("stat4", 30, teamB));
+        em.persist(new Member("stat5", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void 팀별_통계() {
+        List<TeamStatisticsDTO> result = statTeams(teamStatisticsRepository.findTeamStatistics());
+
+        assertThat(result)
+                .extracting("teamName", "memberCount", "ageSum", "ageMin", "ageMax")
+                .containsExactly(
+                        tuple("statTeamA", 3L, 46L, 10, 21),
+                        tuple("statTeamB", 2L, 70L, 30, 40));
+        assertThat(result.get(1).getAgeAvg()).isEqualTo(35.0);
+    }
+
+    @Test
+    void 팀별_나이_구간_통계() {
+        List<AgeBucketStatisticsDTO> result = teamStatisticsRepository.findAgeBucketStatistics(10).stream()
+                .filter(bucket -> bucket.getTeamName().startsWith("statTeam"))
+                .collect(Collectors.toList());
+
+        assertThat(result)
+                .extracting("teamName", "ageFrom", "memberCount")
+                .containsExactly(
+                        tuple("statTeamA", 10, 2L),
+                        tuple("statTeamA", 20, 1L),
+                        tuple("statTeamB", 30, 1L),
+                        tuple("statTeamB", 40, 1L));
+    }
+
+    @Test
+    void 나이_구간은_음수도_내림으로_나눈다() {
+        em.persist(new Member("stat6", -5, em.find(Team.class, teamB.getId())));
+        em.flush();
+
+        assertThat(teamStatisticsRepository.findAgeBucketStatistics(10))
+                .filteredOn(bucket -> bucket.getTeamName().equals("statTeamB"))
+                .extracting("ageFrom", "memberCount")
+                .containsExactly(tuple(-10, 1L), tuple(30, 1L), tuple(40, 1L));
+    }
+
+    @Test
+    void 요약_테이블_다시_만들기() {
+        teamStatisticsRepository.refreshSummaries(List.of(teamA.getId(), teamB.getId()));
+        // 이미 불러온 요약 엔티티가 있어도 bulk delete 이후 새로 만든다
+        teamStatisticsRepository.rebuildSummaries();
+        em.flush();
+        em.clear();
+
+        assertThat(statTeams(teamStatisticsRepository.findTeamSummaries()))
+                .isEqualTo(statTeams(teamStatisticsRepository.findTeamStatistics()));
+    }
+
+    @Test
+    void 요약_테이블_갱신() {
+        teamStatisticsRepository.refreshSummaries(List.of(teamA.getId(), teamB.getId()));
+        assertThat(statTeams(teamStatisticsRepository.findTeamSummaries()))
+                .isEqualTo(statTeams(teamStatisticsRepository.findTeamStatistics()));
+
+        // teamB 회원을 모두 teamA 로 옮기면 teamB 요약은 삭제된다
+        em.createQuery("update Member m set m.team = :teamA where m.team = :teamB")
+                .setParameter("teamA", teamA)
+                .setParameter("teamB", teamB)
+                .executeUpdate();
+        teamStatisticsRepository.refreshSummaries(List.of(teamA.getId(), teamB.getId()));
+
+        assertThat(statTeams(teamStatisticsRepository.findTeamSummaries()))
+                .extracting("teamName", "memberCount", "ageMin", "ageMax")
+                .containsExactly(tuple("statTeamA", 5L, 10, 40));
+    }
+
+    private List<TeamStatisticsDTO> statTeams(List<TeamStatisticsDTO> statistics) {
+        return statistics.stream()
+                .filter(s -> s.getTeamName().startsWith("statTeam"))
+                .collect(Collectors.toList());
+    }
+}
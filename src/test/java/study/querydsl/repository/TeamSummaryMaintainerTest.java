@@ -0,0 +1,135 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 요약은 커밋 후에 반영되므로 테스트 트랜잭션 없이 실행하고, 직접 정리한다.
+ * 다른 테스트와 DB, 2차 캐시를 공유하지 않도록 별도의 H2 를 사용한다.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "member.statistics.summary.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:teamSummary",
+        "member.cache.enabled=false"
+})
+class TeamSummaryMaintainerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    TeamStatisticsRepository teamStatisticsRepository;
+
+    @Autowired
+    MemberBulkMutationService bulkMutationService;
+
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("summaryTeamA");
+            Team teamB = new Team("summaryTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            em.persist(new Member("summary1", 10, teamA));
+            em.persist(new Member("summary2", 20, teamA));
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+        });
+    }
+
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from TeamSummary").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    void 회원_추가_수정_삭제가_커밋되면_요약이_갱신된다() {
+        assertThat(teamStatisticsRepository.findTeamSummaries())
+                .extracting("teamName", "memberCount", "ageSum", "ageMin", "ageMax")
+                .containsExactly(tuple("summaryTeamA", 2L, 30L, 10, 20));
+
+        // 수정: 팀 이동과 나이 변경
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = findMember("summary2");
+            member.changeTeam(em.find(Team.class, teamBId));
+            member.setAge(25);
+        });
+        assertThat(teamStatisticsRepository.findTeamSummaries())
+                .extracting("teamName", "memberCount", "ageSum", "ageMin", "ageMax")
+                .containsExactly(
+                        tuple("summaryTeamA", 1L, 10L, 10, 10),
+                        tuple("summaryTeamB", 1L, 25L, 25, 25));
+
+        // 삭제: 회원이 없는 팀의 요약 row 는 삭제된다
+        transactionTemplate.executeWithoutResult(status -> em.remove(findMember("summary1")));
+        assertThat(teamStatisticsRepository.findTeamSummaries())
+                .extracting("teamName", "memberCount")
+                .containsExactly(tuple("summaryTeamB", 1L));
+    }
+
+    @Test
+    void 팀_이름을_바꾸면_요약의_팀_이름도_바뀐다() {
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamAId).setName("renamedTeamA"));
+
+        assertThat(teamStatisticsRepository.findTeamSummaries())
+                .extracting("teamId", "teamName")
+                .containsExactly(tuple(teamAId, "renamedTeamA"));
+    }
+
+    @Test
+    void bulk_수정_삭제도_요약에_반영된다() {
+        bulkMutationService.update(member.username.eq("summary2"),
+                update -> update.set(member.age, 40),
+                BulkMutationOptions.of(100));
+        assertThat(teamStatisticsRepository.findTeamSummaries())
+                .extracting("teamName", "memberCount", "ageSum", "ageMin", "ageMax")
+                .containsExactly(tuple("summaryTeamA", 2L, 50L, 10, 40));
+
+        bulkMutationService.delete(member.username.eq("summary1"), BulkMutationOptions.of(100));
+        assertThat(teamStatisticsRepository.findTeamSummaries())
+                .extracting("teamName", "memberCount", "ageSum")
+                .containsExactly(tuple("summaryTeamA", 1L, 40L));
+    }
+
+    @Test
+    void 롤백하면_요약은_그대로다() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("summary3", 30, em.find(Team.class, teamAId)));
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamStatisticsRepository.findTeamSummaries())
+                .extracting("teamName", "memberCount")
+                .containsExactly(tuple("summaryTeamA", 2L));
+    }
+
+    private Member findMember(String username) {
+        return em.createQuery("select m from Member m where m.username = :username", Member.class)
+                .setParameter("username", username)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,167 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 색인은 커밋 후에 반영되므로 테스트 트랜잭션 없이 실행하고, 직접 정리한다.
+ * 다른 테스트와 DB, 2차 캐시를 공유하지 않도록 별도의 H2 를 사용한다.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "member.username-index.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:usernameIndex",
+        "member.cache.enabled=false"
+})
+class UsernameIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberBulkMutationService bulkMutationService;
+
+    @Autowired
+    UsernameIndex usernameIndex;
+
+    @Autowired
+    MemberBulkWriter memberBulkWriter;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("alpha1", 10));
+            em.persist(new Member("alpha2", 20));
+            em.persist(new Member("beta1", 30));
+            em.persist(new Member("xalphay", 40));
+        });
+    }
+
+    @AfterEach
+    void after() {
+        transactionTemplate.executeWithoutResult(status -> memberRepository.deleteAll());
+    }
+
+    @Test
+    void 접두사_포함_검색() {
+        assertThat(usernameIndex.size()).isEqualTo(4);
+        assertThat(search("alpha", UsernameMatch.PREFIX)).containsExactly("alpha1", "alpha2");
+        assertThat(search("alpha", UsernameMatch.CONTAINS)).containsExactly("alpha1", "alpha2", "xalphay");
+        assertThat(search("a1", UsernameMatch.CONTAINS)).containsExactly("alpha1", "beta1");
+        assertThat(search("gamma", UsernameMatch.CONTAINS)).isEmpty();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        assertThat(memberRepository.searchByUsername("alpha", UsernameMatch.CONTAINS, condition))
+                .extracting("username")
+                .containsExactly("alpha2", "xalphay");
+    }
+
+    @Test
+    void 수정_삭제_반영() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("select m from Member m where m.username = 'beta1'", Member.class)
+                    .getSingleResult()
+                    .setUsername("alpha3");
+            em.remove(em.createQuery("select m from Member m where m.username = 'alpha1'", Member.class)
+                    .getSingleResult());
+        });
+
+        assertThat(search("alpha", UsernameMatch.PREFIX)).containsExactly("alpha2", "alpha3");
+        assertThat(search("beta", UsernameMatch.PREFIX)).isEmpty();
+    }
+
+    @Test
+    void 커밋되지_않은_변경은_반영하지_않음() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("alpha9", 50));
+            status.setRollbackOnly();
+        });
+
+        assertThat(usernameIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void bulk_수정_반영() {
+        bulkMutationService.update(member.username.eq("beta1"),
+                update -> update.set(member.username, "alphaBulk"),
+                BulkMutationOptions.of(100));
+
+        assertThat(search("alpha", UsernameMatch.PREFIX)).containsExactly("alpha1", "alpha2", "alphaBulk");
+    }
+
+    @Test
+    void 대량_저장은_커밋_후_한_번에_반영() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            members.add(new Member("gamma" + i, i));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            memberBulkWriter.insertAll(members, 50);
+            // 저장이 끝나면 대량 저장 표시는 지우고, 커밋 전이므로 색인은 그대로다
+            assertThat(MemberBulkWriter.isBulkInsert()).isFalse();
+            assertThat(usernameIndex.size()).isEqualTo(4);
+        });
+
+        assertThat(usernameIndex.size()).isEqualTo(124);
+        assertThat(find("gamma11", UsernameMatch.PREFIX)).containsExactlyInAnyOrder("gamma11", "gamma110", "gamma111",
+                "gamma112", "gamma113", "gamma114", "gamma115", "gamma116", "gamma117", "gamma118", "gamma119");
+    }
+
+    @Test
+    void 색인에서_직접_찾기() {
+        // like 조건 없이 색인만 조회한다
+        assertThat(find("alpha", UsernameMatch.PREFIX)).containsExactlyInAnyOrder("alpha1", "alpha2");
+        assertThat(find("alpha", UsernameMatch.CONTAINS)).containsExactlyInAnyOrder("alpha1", "alpha2", "xalphay");
+        assertThat(find("gamma", UsernameMatch.PREFIX)).isEmpty();
+        // 후보가 너무 많으면 null (like 로 조회)
+        assertThat(usernameIndex.find("alpha", UsernameMatch.PREFIX, 1)).isNull();
+    }
+
+    @Test
+    void 접두사_뒤에_어떤_문자가_와도_찾기() {
+        // 보조 문자(surrogate pair)와 char 최댓값 U+FFFF
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("alpha\uD83D\uDE00", 60));
+            em.persist(new Member("alpha\uFFFF", 70));
+        });
+
+        assertThat(find("alpha", UsernameMatch.PREFIX))
+                .containsExactlyInAnyOrder("alpha1", "alpha2", "alpha\uD83D\uDE00", "alpha\uFFFF");
+    }
+
+    private List<String> find(String keyword, UsernameMatch match) {
+        Set<Long> ids = usernameIndex.find(keyword, match, MemberRepositoryImpl.MAX_USERNAME_INDEX_CANDIDATES);
+        return ids.stream()
+                .map(id -> memberRepository.findById(id).orElseThrow().getUsername())
+                .toList();
+    }
+
+    private List<String> search(String keyword, UsernameMatch match) {
+        return memberRepository.searchByUsername(keyword, match, new MemberSearchCondition()).stream()
+                .map(MemberTeamDTO::getUsername)
+                .toList();
+    }
+}